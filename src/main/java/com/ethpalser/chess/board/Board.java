@@ -2,6 +2,7 @@ package com.ethpalser.chess.board;
 
 import com.ethpalser.chess.log.Log;
 import com.ethpalser.chess.log.LogEntry;
+import com.ethpalser.chess.move.MoveSet;
 import com.ethpalser.chess.move.map.ThreatMap;
 import com.ethpalser.chess.piece.Piece;
 import com.ethpalser.chess.space.Plane;
@@ -19,6 +20,19 @@ public interface Board {
 
     void addPiece(Point point, Piece piece);
 
+    /**
+     * Finds the moves of a piece on this board. Implementations may return a move set computed earlier if the
+     * board has not changed in a way that affects it, so the result must not be modified.
+     *
+     * @param piece   {@link Piece} on this board
+     * @param log     {@link Log} of the game
+     * @param threats {@link ThreatMap} of the piece's opponent
+     * @return {@link MoveSet} of the piece
+     */
+    default MoveSet getMoves(Piece piece, Log<Point, Piece> log, ThreatMap threats) {
+        return piece.getMoves(this.getPieces(), log, threats);
+    }
+
     LogEntry<Point, Piece> movePiece(Point start, Point end,
             Log<Point, Piece> log, ThreatMap threatMap);
 
@@ -0,0 +1,113 @@
+package com.ethpalser.chess.board;
+
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.space.Plane;
+import com.ethpalser.chess.space.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * BoardSnapshot is a copy of where each piece of a board is and whether it has moved. Pieces are kept by reference,
+ * as log entries refer to them, so restoring a snapshot puts the same pieces back and the log can be replayed from
+ * it.
+ */
+public class BoardSnapshot {
+
+    private final Point[] points;
+    private final Piece[] pieces;
+    private final boolean[] hasMoved;
+
+    private BoardSnapshot(Plane<Piece> board) {
+        int size = board.size();
+        this.points = new Point[size];
+        this.pieces = new Piece[size];
+        this.hasMoved = new boolean[size];
+        int i = 0;
+        for (Piece piece : board) {
+            this.points[i] = piece.getPoint();
+            this.pieces[i] = piece;
+            this.hasMoved[i] = piece.getHasMoved();
+            i++;
+        }
+    }
+
+    public static BoardSnapshot of(Plane<Piece> board) {
+        if (board == null) {
+            throw new NullPointerException("board cannot be null");
+        }
+        return new BoardSnapshot(board);
+    }
+
+    /**
+     * Places each piece of this snapshot back where it was, and removes every other piece from the board.
+     *
+     * @param board {@link Board} the snapshot was taken of
+     */
+    public void restore(Board board) {
+        Set<Piece> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < this.pieces.length; i++) {
+            if (board.getPiece(this.points[i]) == this.pieces[i]) {
+                kept.add(this.pieces[i]);
+            }
+        }
+        // Pieces are removed before any are placed, so placing one cannot displace a piece that is still to move
+        for (Piece piece : new ArrayList<>(board.getPieces().values())) {
+            if (!kept.contains(piece)) {
+                board.addPiece(piece.getPoint(), null);
+            }
+        }
+        for (int i = 0; i < this.pieces.length; i++) {
+            this.pieces[i].setHasMoved(this.hasMoved[i]);
+            if (!kept.contains(this.pieces[i])) {
+                this.pieces[i].setPoint(this.points[i]);
+                board.addPiece(this.points[i], this.pieces[i]);
+            }
+        }
+    }
+
+    /**
+     * Finds the points where the board differs from this snapshot, which are those with a different piece or a
+     * piece that has moved since.
+     *
+     * @param board {@link Plane} to compare with
+     * @return List of the points that changed
+     */
+    public List<Point> getChangedPoints(Plane<Piece> board) {
+        List<Point> changed = new ArrayList<>();
+        Set<Piece> same = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < this.pieces.length; i++) {
+            Piece piece = board.get(this.points[i]);
+            if (piece == this.pieces[i] && piece.getHasMoved() == this.hasMoved[i]) {
+                same.add(piece);
+            } else {
+                changed.add(this.points[i]);
+            }
+        }
+        for (Piece piece : board) {
+            if (!same.contains(piece) && !changed.contains(piece.getPoint())) {
+                changed.add(piece.getPoint());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Finds the pieces of this snapshot that are no longer on the board, such as pieces captured since.
+     *
+     * @param board {@link Plane} to compare with
+     * @return List of the removed pieces
+     */
+    public List<Piece> getRemovedPieces(Plane<Piece> board) {
+        List<Piece> removed = new ArrayList<>();
+        for (Piece piece : this.pieces) {
+            if (board.get(piece.getPoint()) != piece) {
+                removed.add(piece);
+            }
+        }
+        return removed;
+    }
+
+}
@@ -4,11 +4,13 @@ import com.ethpalser.chess.exception.IllegalActionException;
 import com.ethpalser.chess.log.ChessLogEntry;
 import com.ethpalser.chess.log.Log;
 import com.ethpalser.chess.log.LogEntry;
+import com.ethpalser.chess.move.MoveSet;
 import com.ethpalser.chess.move.Movement;
 import com.ethpalser.chess.move.map.ThreatMap;
 import com.ethpalser.chess.piece.Colour;
 import com.ethpalser.chess.piece.Piece;
 import com.ethpalser.chess.piece.PieceStringTokenizer;
+import com.ethpalser.chess.piece.Pieces;
 import com.ethpalser.chess.piece.custom.CustomPiece;
 import com.ethpalser.chess.piece.custom.CustomPieceFactory;
 import com.ethpalser.chess.piece.custom.PieceType;
@@ -22,7 +24,9 @@ import com.ethpalser.chess.space.Plane;
 import com.ethpalser.chess.space.Point;
 import com.ethpalser.chess.view.BoardView;
 import com.ethpalser.chess.view.MoveView;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -30,6 +34,44 @@ import java.util.Map;
 public class ChessBoard implements Board {
 
     private final Plane<Piece> pieces;
+    // Moves of each piece since its last change, see ChessBoard#getMoves(Piece, Log, ThreatMap)
+    private final Map<Piece, CachedMoves> moveCache = new IdentityHashMap<>();
+
+    /**
+     * Moves of a piece along with the state they were computed from. The dependencies are the indices of the
+     * points that can affect the moves (see {@link Point#toIndex()}), or null if any point can.
+     */
+    private static class CachedMoves {
+        private final MoveSet moves;
+        private final BitSet dependencies;
+        private final Point point;
+        private final boolean hasMoved;
+        private final Log<Point, Piece> log;
+        private final LogEntry<Point, Piece> lastEntry;
+
+        private CachedMoves(MoveSet moves, BitSet dependencies, Piece piece, Log<Point, Piece> log,
+                LogEntry<Point, Piece> lastEntry) {
+            this.moves = moves;
+            this.dependencies = dependencies;
+            this.point = piece.getPoint();
+            this.hasMoved = piece.getHasMoved();
+            this.log = log;
+            this.lastEntry = lastEntry;
+        }
+
+        private boolean isValid(Piece piece, Log<Point, Piece> log, LogEntry<Point, Piece> lastEntry) {
+            boolean dependsOnLog = this.dependencies == null || piece instanceof Pawn;
+            return this.isSamePiece(piece) && this.log == log && (!dependsOnLog || this.lastEntry == lastEntry);
+        }
+
+        private boolean isSamePiece(Piece piece) {
+            return this.point.equals(piece.getPoint()) && this.hasMoved == piece.getHasMoved();
+        }
+
+        private boolean dependsOn(int index) {
+            return this.dependencies == null || this.dependencies.get(index);
+        }
+    }
 
     public ChessBoard() {
         this.pieces = this.standard();
@@ -56,7 +98,8 @@ public class ChessBoard implements Board {
                 Colour colour = Colour.fromCode(tokenizer.nextToken());
                 String code = tokenizer.nextToken();
                 Point point = new Point(tokenizer.nextToken() + tokenizer.nextToken());
-                boolean hasMoved = Boolean.parseBoolean(tokenizer.nextToken());
+                // The not-moved token is an asterisk, otherwise it is empty
+                boolean hasMoved = "".equals(tokenizer.nextToken());
 
                 switch (PieceType.fromCode(code)) {
                     case PAWN -> plane.put(point, new Pawn(colour, point, hasMoved));
@@ -89,7 +132,7 @@ public class ChessBoard implements Board {
             Colour colour = Colour.fromCode(tokenizer.nextToken());
             String code = tokenizer.nextToken();
             Point point = new Point(tokenizer.nextToken() + tokenizer.nextToken());
-            boolean hasMoved = Boolean.parseBoolean(tokenizer.nextToken());
+            boolean hasMoved = "".equals(tokenizer.nextToken());
 
             switch (PieceType.fromCode(code)) {
                 case PAWN -> plane.put(point, new Pawn(colour, point, hasMoved));
@@ -119,6 +162,10 @@ public class ChessBoard implements Board {
         if (point == null) {
             return;
         }
+        this.invalidateMoves(point);
+        if (piece != null) {
+            this.invalidateMoves(piece.getPoint());
+        }
         if (piece == null) {
             this.pieces.remove(point);
         } else {
@@ -145,31 +192,77 @@ public class ChessBoard implements Board {
             throw new IllegalActionException("piece cannot move as it does not exist at " + start);
         }
 
-        Movement move = piece.getMoves(this.getPieces(), log, threatMap).getMove(end);
+        Movement move = this.getMoves(piece, log, threatMap).getMove(end);
         if (move == null) {
             throw new IllegalActionException("piece (" + piece + ") cannot move to " + end);
         }
         Piece captured = this.getPiece(end);
 
-        LogEntry<Point, Piece> response = new ChessLogEntry(start, end, piece, captured, move.getFollowUpMove());
+        // The follow-up can be relative to the moving piece (ex. a reference), so it is resolved before moving
+        LogEntry<Point, Piece> followUp = null;
+        if (move.getFollowUpMove() != null && move.getFollowUpMove().getStartObject() != null) {
+            LogEntry<Point, Piece> moveFollowUp = move.getFollowUpMove();
+            followUp = new ChessLogEntry(moveFollowUp.getStart(), moveFollowUp.getEnd(),
+                    moveFollowUp.getStartObject());
+        }
+        LogEntry<Point, Piece> response = new ChessLogEntry(start, end, piece, captured, followUp);
+
+        this.invalidateMoves(start);
+        this.invalidateMoves(end);
+        if (followUp != null) {
+            this.invalidateMoves(followUp.getStart());
+            this.invalidateMoves(followUp.getEnd());
+        }
 
         this.pieces.remove(end);
         this.pieces.remove(start);
         this.pieces.put(end, piece);
         piece.move(end);
 
-        LogEntry<Point, Piece> followUp = move.getFollowUpMove();
         if (followUp != null) {
             Piece toForcePush = followUp.getStartObject();
             this.pieces.remove(followUp.getStart());
             if (followUp.getEnd() != null) {
                 this.pieces.put(followUp.getEnd(), toForcePush);
+                // The piece is moved by the follow-up (ex. the rook when castling), so it must know its new point
+                toForcePush.move(followUp.getEnd());
             }
         }
         this.pieces.remove(null);
         return response;
     }
 
+    /**
+     * Finds the moves of a piece, reusing the moves found by an earlier call if none of the points they depend on
+     * have changed since. A piece's moves depend on the points it could reach on an empty board, as any piece
+     * there can block or be captured. Pawns also depend on the last log entry for en passant, and custom pieces
+     * with conditions can depend on any point. A king's moves depend on the threats against it, so they are
+     * always found again.
+     *
+     * @param piece   {@link Piece} on this board
+     * @param log     {@link Log} of the game
+     * @param threats {@link ThreatMap} of the piece's opponent
+     * @return {@link MoveSet} of the piece, which must not be modified
+     */
+    @Override
+    public MoveSet getMoves(Piece piece, Log<Point, Piece> log, ThreatMap threats) {
+        if (Pieces.isKing(piece) || this.pieces.get(piece.getPoint()) != piece) {
+            return piece.getMoves(this.pieces, log, threats);
+        }
+        LogEntry<Point, Piece> lastEntry = log == null || log.isEmpty() ? null : log.peek();
+        CachedMoves cached = this.moveCache.get(piece);
+        if (cached != null && cached.isValid(piece, log, lastEntry)) {
+            return cached.moves;
+        }
+        // The points a piece could reach only change when it does, so these are kept if it has not moved
+        BitSet dependencies = cached != null && cached.isSamePiece(piece)
+                ? cached.dependencies
+                : this.findMoveDependencies(piece);
+        MoveSet moves = piece.getMoves(this.pieces, log, threats);
+        this.moveCache.put(piece, new CachedMoves(moves, dependencies, piece, log, lastEntry));
+        return moves;
+    }
+
     @Override
     public boolean isInBounds(int x, int y) {
         return this.pieces.getMinX() <= x && x <= this.pieces.getMaxX()
@@ -207,6 +300,31 @@ public class ChessBoard implements Board {
 
     // PRIVATE METHODS
 
+    private void invalidateMoves(Point point) {
+        if (point == null || this.moveCache.isEmpty()) {
+            return;
+        }
+        int index = point.toIndex();
+        this.moveCache.values().removeIf(cached -> cached.dependsOn(index));
+    }
+
+    private BitSet findMoveDependencies(Piece piece) {
+        if (piece instanceof CustomPiece && ((CustomPiece) piece).hasConditionalMoves()) {
+            return null;
+        }
+        Plane<Piece> empty = new Plane<>(this.pieces.getMaxX(), this.pieces.getMaxY());
+        empty.put(piece.getPoint(), piece);
+        BitSet dependencies = new BitSet();
+        dependencies.set(piece.getPoint().toIndex());
+        for (Point p : piece.getMoves(empty, null, null, false, false).getPoints()) {
+            dependencies.set(p.toIndex());
+        }
+        for (Point p : piece.getMoves(empty, null, null, true, true).getPoints()) {
+            dependencies.set(p.toIndex());
+        }
+        return dependencies;
+    }
+
     private Plane<Piece> standard() {
         Plane<Piece> plane = new Plane<>();
         int length = plane.length();
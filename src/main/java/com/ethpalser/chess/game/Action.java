@@ -2,26 +2,38 @@ package com.ethpalser.chess.game;
 
 import com.ethpalser.chess.piece.Colour;
 import com.ethpalser.chess.space.Point;
+import java.util.Objects;
 
 /**
- * Container for an attempted piece movement for a Player of this colour, Point start and Point end
+ * Container for an attempted piece movement for a Player of this colour, Point start and Point end, and the code of
+ * the piece to promote to if the movement promotes
  */
 public class Action {
 
     private final Colour colour;
     private final Point start;
     private final Point end;
+    private final String promotion;
 
     private Action() {
         colour = Colour.WHITE;
         start = new Point();
         end = new Point();
+        promotion = null;
     }
 
     public Action(Colour colour, Point start, Point end) {
+        this(colour, start, end, null);
+    }
+
+    /**
+     * @param promotion code of the piece to promote to (ex. "N"), or null for the piece's first promotion option
+     */
+    public Action(Colour colour, Point start, Point end, String promotion) {
         this.colour = colour;
         this.start = start;
         this.end = end;
+        this.promotion = promotion;
     }
 
     public Colour getColour() {
@@ -36,12 +48,31 @@ public class Action {
         return end;
     }
 
+    public String getPromotion() {
+        return promotion;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Action action = (Action) o;
+        return this.colour == action.colour && Objects.equals(this.start, action.start)
+                && Objects.equals(this.end, action.end) && Objects.equals(this.promotion, action.promotion);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.colour, this.start, this.end, this.promotion);
+    }
+
     @Override
     public String toString() {
         return "Action{" +
                 "colour=" + colour +
                 ", start=" + start +
                 ", end=" + end +
+                (promotion != null ? ", promotion=" + promotion : "") +
                 '}';
     }
 }
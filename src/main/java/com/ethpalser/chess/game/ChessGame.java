@@ -1,11 +1,17 @@
 package com.ethpalser.chess.game;
 
 import com.ethpalser.chess.board.Board;
+import com.ethpalser.chess.board.BoardSnapshot;
 import com.ethpalser.chess.board.ChessBoard;
 import com.ethpalser.chess.exception.IllegalActionException;
+import com.ethpalser.chess.game.evaluation.EvaluationParameters;
+import com.ethpalser.chess.game.evaluation.IncrementalEvaluator;
+import com.ethpalser.chess.game.evaluation.NeuralNetwork;
+import com.ethpalser.chess.game.evaluation.PawnHashTable;
 import com.ethpalser.chess.log.ChessLog;
 import com.ethpalser.chess.log.Log;
 import com.ethpalser.chess.log.LogEntry;
+import com.ethpalser.chess.log.PositionHistory;
 import com.ethpalser.chess.move.MoveSet;
 import com.ethpalser.chess.move.Movement;
 import com.ethpalser.chess.move.map.MoveMap;
@@ -16,21 +22,49 @@ import com.ethpalser.chess.piece.Pieces;
 import com.ethpalser.chess.piece.custom.CustomPieceFactory;
 import com.ethpalser.chess.piece.custom.PieceType;
 import com.ethpalser.chess.space.Path;
+import com.ethpalser.chess.space.Plane;
 import com.ethpalser.chess.space.Point;
+import com.ethpalser.chess.space.VirtualPlane;
 import com.ethpalser.chess.view.GameView;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
 public class ChessGame implements Game {
 
+    private static final int FIFTY_MOVE_PLIES = 100;
+    private static final int SNAPSHOT_INTERVAL = 16;
+
     private final Board board;
     private final Log<Point, Piece> log;
     private final ThreatMap whiteThreats;
     private final ThreatMap blackThreats;
+    private final PositionHistory history;
+    private final Deque<GameStatus> searchStatuses = new ArrayDeque<>();
+    private final TreeMap<Integer, BoardSnapshot> snapshots = new TreeMap<>();
+    private final int firstPly;
+    private MoveMap whiteMoves;
+    private MoveMap blackMoves;
+    private PawnHashTable pawnHashTable;
+    private EvaluationParameters parameters = EvaluationParameters.defaults();
+    private NeuralNetwork network;
+    private IncrementalEvaluator evaluator;
 
     private GameStatus status;
     private Colour player;
@@ -38,6 +72,7 @@ public class ChessGame implements Game {
     private Point blackKing;
     private int turn;
     private Point promotePoint;
+    private Map<Point, BitSet> legalDestinations;
 
     public ChessGame(Board board, Log<Point, Piece> log) {
         if (board == null) {
@@ -46,17 +81,13 @@ public class ChessGame implements Game {
         this.board = board;
         this.log = log;
         this.status = GameStatus.PENDING;
-        for (Piece p : this.board.getPieces()) {
-            if (PieceType.KING.getCode().equals(p.getCode())) {
-                if (Colour.WHITE.equals(p.getColour())) {
-                    this.whiteKing = p.getPoint();
-                } else {
-                    this.blackKing = p.getPoint();
-                }
-            }
-        }
+        this.locateKings();
         this.whiteThreats = new ThreatMap(Colour.WHITE, this.board.getPieces(), log);
         this.blackThreats = new ThreatMap(Colour.BLACK, this.board.getPieces(), log);
+        this.evaluator = new IncrementalEvaluator(this.board.getPieces(), this.parameters);
+        this.history = new PositionHistory(this.getPositionKey());
+        this.firstPly = log.size();
+        this.snapshots.put(this.firstPly, BoardSnapshot.of(this.board.getPieces()));
         this.turn = log.size() + 1;
         this.player = this.turn % 2 != 0 ? Colour.WHITE : Colour.BLACK;
     }
@@ -66,18 +97,14 @@ public class ChessGame implements Game {
         this.player = this.turn % 2 != 0 ? Colour.WHITE : Colour.BLACK;
         this.log = new ChessLog();
         this.board = new ChessBoard(this.log, view.getBoard(), view.getPieceSpecs());
-        for (Piece p : this.board.getPieces()) {
-            if (PieceType.KING.getCode().equals(p.getCode())) {
-                if (Colour.WHITE.equals(p.getColour())) {
-                    this.whiteKing = p.getPoint();
-                } else {
-                    this.blackKing = p.getPoint();
-                }
-            }
-        }
+        this.locateKings();
         // this.log.addAll(this.board.getPieces(), view.getLog()); // todo: refactor log, it is a pain to recreate
         this.whiteThreats = new ThreatMap(Colour.WHITE, this.board.getPieces(), this.log);
         this.blackThreats = new ThreatMap(Colour.BLACK, this.board.getPieces(), this.log);
+        this.evaluator = new IncrementalEvaluator(this.board.getPieces(), this.parameters);
+        this.history = new PositionHistory(this.getPositionKey());
+        this.firstPly = 0;
+        this.snapshots.put(this.firstPly, BoardSnapshot.of(this.board.getPieces()));
         this.status = checkGameStatus();
     }
 
@@ -91,6 +118,18 @@ public class ChessGame implements Game {
         return this.log;
     }
 
+    /**
+     * @param colour {@link Colour} of the pieces
+     * @return {@link ThreatMap} of the points threatened by that colour's pieces
+     */
+    public ThreatMap getThreatMap(Colour colour) {
+        if (Colour.WHITE.equals(colour)) {
+            return this.whiteThreats;
+        } else {
+            return this.blackThreats;
+        }
+    }
+
     @Override
     public GameStatus getStatus() {
         return status;
@@ -106,10 +145,14 @@ public class ChessGame implements Game {
         if (action == null) {
             throw new IllegalActionException("action cannot be null");
         }
-        return this.updateGame(action.getStart(), action.getEnd(), action.getColour());
+        return this.updateGame(action.getStart(), action.getEnd(), action.getColour(), action.getPromotion());
     }
 
     public GameStatus updateGame(Point start, Point end, Colour player) throws IllegalActionException {
+        return this.updateGame(start, end, player, null);
+    }
+
+    private GameStatus updateGame(Point start, Point end, Colour player, String promotion) {
         if (GameStatus.isCompletedGameStatus(this.status)) {
             return this.status;
         }
@@ -127,52 +170,13 @@ public class ChessGame implements Game {
         if (isNotAllowedToMove(movingPiece)) {
             return GameStatus.NO_CHANGE;
         }
-        LogEntry<Point, Piece> entry = this.board.movePiece(start, end, this.log,
-                this.getThreatMap(Colour.opposite(this.player)));
-        this.log.push(entry);
-        this.updateKingPosition(movingPiece, end);
-
-        // Update opponent's threats with the move performed
-        this.getThreatMap(Colour.opposite(this.player)).refreshThreats(this.board.getPieces(), this.log, start);
-        this.getThreatMap(Colour.opposite(this.player)).refreshThreats(this.board.getPieces(), this.log, end);
-        // Does moving this piece put turn player in check? (opponent's updated threats now include turn player's king)
-        if (this.isKingInCheck(this.player)) {
-            LogEntry<Point, Piece> logEntry = this.log.pop();
-            // soft undo update, which does not alter turn or player nor check game status
-            this.undoLogEntryToBoard(logEntry.getSubLogEntry());
-            this.undoLogEntryToBoard(logEntry);
-            this.applyLogEntryToThreats(logEntry);
-            this.updateKingPosition(movingPiece, start);
+        if (!this.applyMove(start, end, movingPiece, promotion)) {
             return GameStatus.NO_CHANGE;
         }
-
-        // Update remaining threats
-        this.getThreatMap(this.player).refreshThreats(this.board.getPieces(), this.log, start);
-        this.getThreatMap(this.player).refreshThreats(this.board.getPieces(), this.log, end);
-        if (entry.getSubLogEntry() != null) {
-            this.applyLogEntryToThreats(entry.getSubLogEntry());
-        }
-
-        if (this.board.getPiece(start) != null) {
-            throw new IllegalActionException("cannot perform move as it cannot move to " + end);
-        }
-
-        // Promote the piece if it can be promoted
-        List<String> promoteOptions = movingPiece.promoteOptions();
-        if (movingPiece.canPromote(this.board.getPieces())) {
-            this.promotePoint = end;
-            if (!promoteOptions.isEmpty()) {
-                // TEMPORARY use only the first option for promotion
-                this.promotePiece(movingPiece.promoteOptions().get(0));
-            }
-        } else {
-            // Piece was not promoted (if promotion was not enforced), so remove ability to promote it
-            this.promotePoint = null;
-        }
-
         this.status = this.checkGameStatus();
         this.player = Colour.opposite(this.player);
         this.turn++;
+        this.takeSnapshot();
         return this.status;
     }
 
@@ -195,10 +199,16 @@ public class ChessGame implements Game {
         // Update the board and latest log with this promotion
         this.board.addPiece(this.promotePoint, replacement);
         this.log.peek().setPromotion(replacement);
+        this.evaluator.refresh(this.promotePoint);
+        this.history.replace(this.getPositionKey());
+        this.snapshots.computeIfPresent(this.log.size(),
+                (ply, snapshot) -> BoardSnapshot.of(this.board.getPieces()));
+        this.legalDestinations = null;
     }
 
     @Override
     public GameStatus undoUpdate(int beforeCurrent, boolean saveUndone) {
+        int undone = 0;
         for (int i = 0; i < beforeCurrent; i++) {
             LogEntry<Point, Piece> logEntry;
             if (saveUndone) {
@@ -209,21 +219,60 @@ public class ChessGame implements Game {
             if (logEntry == null) {
                 break;
             }
-            if (logEntry.getSubLogEntry() != null) {
-                this.undoLogEntryToBoard(logEntry.getSubLogEntry());
-                this.applyLogEntryToThreats(logEntry.getSubLogEntry());
-            }
-            this.undoLogEntryToBoard(logEntry);
-            this.applyLogEntryToThreats(logEntry);
-
-            this.updateKingPosition(logEntry.getStartObject(), logEntry.getStart());
-            this.status = this.checkGameStatus();
+            this.revertMove(logEntry);
             this.player = Colour.opposite(this.player);
             this.turn--;
+            undone++;
+        }
+        if (undone > 0) {
+            // The threats are read for the status once, so the changes of every action undone are applied together
+            this.classifyStatus();
         }
         return this.status;
     }
 
+    /**
+     * Performs an action generated by {@link #potentialUpdates()} for a search, which skips the validation of
+     * {@link #updateGame(Action)} and only finds whether the opponent is now in check instead of classifying the
+     * game's status. Checkmate, stalemate and draws are left for the search to detect, such as when none of the
+     * generated actions can be made. It must be undone with {@link #unmakeMove()}.
+     *
+     * @param action {@link Action} of the turn player
+     * @return true if the action was performed, or false if the turn player has no piece at its start or it leaves
+     * the turn player's king in check
+     */
+    @Override
+    public boolean makeMove(Action action) {
+        Piece movingPiece = this.board.getPiece(action.getStart());
+        if (movingPiece == null || this.isNotAllowedToMove(movingPiece)) {
+            return false;
+        }
+        if (!this.applyMove(action.getStart(), action.getEnd(), movingPiece, action.getPromotion())) {
+            return false;
+        }
+        this.searchStatuses.push(this.status);
+        this.status = this.isKingInCheck(this.opponent()) ? GameStatus.colourInCheckStatus(this.opponent())
+                : GameStatus.ONGOING;
+        this.player = Colour.opposite(this.player);
+        this.turn++;
+        return true;
+    }
+
+    /**
+     * Undoes the latest action performed by {@link #makeMove(Action)}, restoring the status from before it.
+     */
+    @Override
+    public void unmakeMove() {
+        LogEntry<Point, Piece> logEntry = this.log.pop();
+        if (logEntry == null) {
+            return;
+        }
+        this.revertMove(logEntry);
+        this.status = this.searchStatuses.isEmpty() ? this.checkGameStatus() : this.searchStatuses.pop();
+        this.player = Colour.opposite(this.player);
+        this.turn--;
+    }
+
     private void undoLogEntryToBoard(LogEntry<Point, Piece> logEntry) {
         if (logEntry == null) {
             return;
@@ -238,6 +287,7 @@ public class ChessGame implements Game {
 
     @Override
     public GameStatus redoUpdate(int afterCurrent) {
+        int redone = 0;
         for (int i = 0; i < afterCurrent; i++) {
             LogEntry<Point, Piece> logEntry = this.log.redo();
             if (logEntry == null) {
@@ -254,15 +304,91 @@ public class ChessGame implements Game {
             if (promoted != null) {
                 this.board.addPiece(promoted.getPoint(), promoted);
             }
+            this.refreshEvaluation(logEntry);
+            this.history.push(this.getPositionKey(), this.isIrreversible(logEntry),
+                    this.resetsClock(logEntry));
 
             this.updateKingPosition(logEntry.getStartObject(), logEntry.getEnd());
-            this.status = this.checkGameStatus();
+            this.legalDestinations = null;
             this.player = Colour.opposite(this.player);
             this.turn++;
+            this.takeSnapshot();
+            redone++;
+        }
+        if (redone > 0) {
+            this.classifyStatus();
         }
         return this.status;
     }
 
+    /**
+     * Moves the game to the state after a number of actions, which can be before the current state or after it if
+     * those actions were undone and can be redone. The board is restored from the nearest snapshot, which is taken
+     * every {@value SNAPSHOT_INTERVAL} plies, and only the actions after it are replayed, with the threats and status
+     * found once at the end.
+     *
+     * @param ply number of actions in the log once moved
+     * @return {@link GameStatus} of the state
+     */
+    public GameStatus seek(int ply) {
+        int current = this.log.size();
+        Map.Entry<Integer, BoardSnapshot> snapshot = this.snapshots.floorEntry(ply);
+        if (ply == current) {
+            return this.status;
+        } else if (snapshot == null || !this.history.canSeek(ply - this.firstPly + 1)) {
+            // Without a snapshot, or the positions of the actions between, each action is undone or redone instead
+            return ply < current ? this.undoUpdate(current - ply, true) : this.redoUpdate(ply - current);
+        }
+        // Moving through the log does not change the board
+        while (this.log.size() > ply && this.log.undo() != null) {
+            continue;
+        }
+        while (this.log.size() < ply && this.log.redo() != null) {
+            continue;
+        }
+        ply = this.log.size();
+        snapshot = this.snapshots.floorEntry(ply);
+
+        BoardSnapshot before = BoardSnapshot.of(this.board.getPieces());
+        snapshot.getValue().restore(this.board);
+        // The log iterates from its latest entry, so the entries after the snapshot are the first ones
+        List<LogEntry<Point, Piece>> replay = new ArrayList<>(ply - snapshot.getKey());
+        Iterator<LogEntry<Point, Piece>> iterator = this.log.iterator();
+        for (int i = snapshot.getKey(); i < ply; i++) {
+            replay.add(iterator.next());
+        }
+        for (int i = replay.size() - 1; i >= 0; i--) {
+            LogEntry<Point, Piece> logEntry = replay.get(i);
+            this.redoLogEntryToBoard(logEntry);
+            this.redoLogEntryToBoard(logEntry.getSubLogEntry());
+            Piece promoted = logEntry.getPromotion();
+            if (promoted != null) {
+                this.board.addPiece(promoted.getPoint(), promoted);
+            }
+        }
+
+        for (Piece removed : before.getRemovedPieces(this.board.getPieces())) {
+            this.whiteThreats.removeThreats(removed);
+            this.blackThreats.removeThreats(removed);
+        }
+        for (Point changed : before.getChangedPoints(this.board.getPieces())) {
+            this.whiteThreats.refreshThreats(this.board.getPieces(), this.log, changed);
+            this.blackThreats.refreshThreats(this.board.getPieces(), this.log, changed);
+        }
+        this.evaluator = new IncrementalEvaluator(this.board.getPieces(), this.parameters, this.network);
+        this.history.seek(ply - this.firstPly + 1);
+        this.locateKings();
+        this.legalDestinations = null;
+        this.promotePoint = null;
+
+        if ((ply - current) % 2 != 0) {
+            this.player = Colour.opposite(this.player);
+        }
+        this.turn += ply - current;
+        this.classifyStatus();
+        return this.status;
+    }
+
     private void redoLogEntryToBoard(LogEntry<Point, Piece> logEntry) {
         if (logEntry == null) {
             return;
@@ -275,10 +401,65 @@ public class ChessGame implements Game {
         this.board.addPiece(logEntry.getStart(), null);
     }
 
+    private boolean resetsClock(LogEntry<Point, Piece> logEntry) {
+        return logEntry.getEndObject() != null
+                || PieceType.PAWN.getCode().equals(logEntry.getStartObject().getCode());
+    }
+
+    private long getPositionKey() {
+        return this.evaluator.getPositionKey(this.getEnPassantX());
+    }
+
+    private int getEnPassantX() {
+        // Only a pawn that moved forward two with an opposing pawn beside it can be captured en passant
+        LogEntry<Point, Piece> last = this.log.peek();
+        if (last == null || !last.isFirstOccurrence() || last.getStart() == null || last.getEnd() == null
+                || Math.abs(last.getEnd().getY() - last.getStart().getY()) != 2) {
+            return -1;
+        }
+        Piece pawn = this.board.getPiece(last.getEnd());
+        if (pawn == null || !PieceType.PAWN.getCode().equals(pawn.getCode())) {
+            return -1;
+        }
+        for (int x = last.getEnd().getX() - 1; x <= last.getEnd().getX() + 1; x += 2) {
+            Piece beside = this.board.getPieces().isInBounds(x, last.getEnd().getY())
+                    ? this.board.getPiece(new Point(x, last.getEnd().getY())) : null;
+            if (beside != null && PieceType.PAWN.getCode().equals(beside.getCode())
+                    && !pawn.getColour().equals(beside.getColour())) {
+                return last.getEnd().getX();
+            }
+        }
+        return -1;
+    }
+
+    private boolean isIrreversible(LogEntry<Point, Piece> logEntry) {
+        // Moving a king or rook for the first time loses the right to castle with it. Moves that reset the clock are
+        // irreversible too, which the history already includes.
+        Piece moved = logEntry.getStartObject();
+        return logEntry.isFirstOccurrence() && (Pieces.isKing(moved)
+                || PieceType.ROOK.getCode().equals(moved.getCode()));
+    }
+
+    private void refreshEvaluation(LogEntry<Point, Piece> logEntry) {
+        // Points without a change are skipped by the evaluator, so every point of the entry can be refreshed
+        for (LogEntry<Point, Piece> e = logEntry; e != null; e = e.getSubLogEntry()) {
+            this.evaluator.refresh(e.getStart());
+            this.evaluator.refresh(e.getEnd());
+        }
+    }
+
     private void applyLogEntryToThreats(LogEntry<Point, Piece> logEntry) {
         if (logEntry == null) {
             return;
         }
+        // A captured or removed piece may have left the board, so its threats are cleared. If it is on the board
+        // (ex. an undo restored it) refreshing its point adds them back.
+        this.whiteThreats.removeThreats(logEntry.getEndObject());
+        this.blackThreats.removeThreats(logEntry.getEndObject());
+        if (logEntry.getEnd() == null) {
+            this.whiteThreats.removeThreats(logEntry.getStartObject());
+            this.blackThreats.removeThreats(logEntry.getStartObject());
+        }
         // End can be null when removing a piece
         if (logEntry.getEnd() != null) {
             this.whiteThreats.refreshThreats(this.board.getPieces(), this.log, logEntry.getEnd());
@@ -302,17 +483,16 @@ public class ChessGame implements Game {
         } else {
             for (Piece piece : this.board.getPieces()) {
                 if (Pieces.isAllied(this.player, piece)) {
-                    MoveSet moves = piece.getMoves(this.board.getPieces(), this.log,
+                    MoveSet moves = this.board.getMoves(piece, this.log,
                             this.getThreatMap(Colour.opposite(piece.getColour())));
                     for (Movement m : moves.toSet()) {
                         Path path = m.getPath();
                         if (path != null && path.length() > 0) {
                             // The last point in a path is a potential capture
-                            potentialCaptures.add(new Action(piece.getColour(), piece.getPoint(),
-                                    path.getPoint(path.length() - 1)));
+                            this.addActions(potentialCaptures, piece, path.getPoint(path.length() - 1));
                             // Remaining points are quiet actions (no captures)
                             for (int i = 0; i < path.length() - 1; i++) {
-                                quietActions.add(new Action(piece.getColour(), piece.getPoint(), path.getPoint(i)));
+                                this.addActions(quietActions, piece, path.getPoint(i));
                             }
                         }
                     }
@@ -324,11 +504,188 @@ public class ChessGame implements Game {
         return potentialCaptures;
     }
 
+    /**
+     * Finds the legal destinations of every piece of the turn player that can move. Each destination is a bit of
+     * the piece's {@link BitSet} at the destination's {@link Point#toIndex()}. Legality is decided with the pins and
+     * checks against the turn player's king, which are found once for all pieces, instead of attempting each move.
+     * The result is cached until the board changes, so it must not be modified.
+     *
+     * @return Map of each movable piece's point to the bit set of its legal destinations
+     */
+    public Map<Point, BitSet> legalDestinations() {
+        if (this.legalDestinations == null) {
+            this.legalDestinations = Collections.unmodifiableMap(this.computeLegalDestinations());
+        }
+        return this.legalDestinations;
+    }
+
+    @Override
+    public boolean isCapture(Action action) {
+        if (action == null || action.getStart() == null || action.getEnd() == null) {
+            return false;
+        }
+        Piece piece = this.board.getPiece(action.getStart());
+        Piece captured = this.board.getPiece(action.getEnd());
+        return piece != null && captured != null && Pieces.isOpponent(piece.getColour(), captured);
+    }
+
+    /**
+     * Evaluates the exchange of captures on the end point of an action, assuming each player recaptures with their
+     * least valuable attacker and stops once recapturing loses material. Attackers are the pieces the
+     * {@link ThreatMap}s have on the point, and the pieces behind them that attack it once they are removed (x-rays).
+     *
+     * @param action {@link Action} that captures a piece
+     * @return material gained by the acting player, which is negative when the capture loses material or 0 when the
+     * action is not a capture
+     */
+    @Override
+    public int see(Action action) {
+        if (!this.isCapture(action)) {
+            return 0;
+        }
+        Point target = action.getEnd();
+        Piece attacker = this.board.getPiece(action.getStart());
+        Map<Point, Piece> removed = new HashMap<>();
+        Plane<Piece> plane = new VirtualPlane<>(this.board.getPieces(), removed);
+
+        // Each gain is the material won by the side capturing at that step, if the exchange stopped there
+        int kingValue = this.getKingExchangeValue();
+        List<Integer> gains = new ArrayList<>();
+        gains.add(this.getExchangeValue(this.board.getPiece(target), kingValue));
+        int onTarget = this.getExchangeValue(attacker, kingValue);
+        removed.put(action.getStart(), null);
+        Colour side = Colour.opposite(attacker.getColour());
+        Piece next = this.getLeastValuableAttacker(plane, target, side, kingValue);
+        while (next != null) {
+            gains.add(onTarget - gains.get(gains.size() - 1));
+            onTarget = this.getExchangeValue(next, kingValue);
+            removed.put(next.getPoint(), null);
+            side = Colour.opposite(side);
+            next = this.getLeastValuableAttacker(plane, target, side, kingValue);
+        }
+        // Each side chooses between stopping and continuing the exchange, from the last capture back to the first
+        for (int i = gains.size() - 1; i > 0; i--) {
+            gains.set(i - 1, -Math.max(-gains.get(i - 1), gains.get(i)));
+        }
+        return gains.get(0);
+    }
+
+    /**
+     * Verifies if the current position occurred before with the same player to move, since the last capture, pawn
+     * move or change of castling rights.
+     *
+     * @return true if the position is a repetition, otherwise false
+     */
+    @Override
+    public boolean isRepetition() {
+        return this.history.countRepetitions() > 1;
+    }
+
+    /**
+     * @return number of plies since the last capture or pawn move, which is a draw by the fifty-move rule at 100
+     */
+    public int getHalfmoveClock() {
+        return this.history.getHalfmoveClock();
+    }
+
     @Override
     public int evaluateState() {
-        return this.evaluateBoardState()
-                + this.whiteThreats.evaluate(this.board.getPieces())
-                + this.blackThreats.evaluate(this.board.getPieces());
+        if (this.evaluator.hasNetwork()) {
+            return this.evaluator.evaluateNetwork();
+        }
+        return this.evaluator.evaluate() + this.evaluatePawnStructure() + this.evaluateActivity();
+    }
+
+    /**
+     * Counts the terms of {@link #evaluateState()} that are weighted outside of its {@link IncrementalEvaluator}, each
+     * as White's count minus Black's: the terms of {@link ThreatMap#getPawnStructure}, then mobility and then king
+     * attacks. The counts do not depend on the evaluation parameters, so a position can be scored with other
+     * parameters from them and its pieces alone.
+     *
+     * @return count of each term
+     */
+    public int[] countEvaluationTerms() {
+        int[] terms = Arrays.copyOf(this.countPawnStructure(), ThreatMap.PAWN_STRUCTURE_TERMS + 2);
+        terms[ThreatMap.PAWN_STRUCTURE_TERMS] = this.whiteThreats.getThreatCount() - this.blackThreats.getThreatCount();
+        terms[ThreatMap.PAWN_STRUCTURE_TERMS + 1] = this.countKingAttacks(Colour.WHITE)
+                - this.countKingAttacks(Colour.BLACK);
+        return terms;
+    }
+
+    public EvaluationParameters getEvaluationParameters() {
+        return this.parameters;
+    }
+
+    /**
+     * Replaces the weights used to evaluate this game, such as weights tuned for its variant and loaded from a file.
+     * The piece-square tables are scaled to the size of this game's board.
+     *
+     * @param parameters {@link EvaluationParameters} of the evaluation
+     */
+    public void setEvaluationParameters(EvaluationParameters parameters) {
+        if (parameters == null) {
+            throw new NullPointerException("parameters cannot be null");
+        }
+        this.parameters = parameters;
+        this.evaluator = new IncrementalEvaluator(this.board.getPieces(), parameters, this.network);
+    }
+
+    /**
+     * Evaluates this game with a network instead of the weighted terms, or with the terms again if it is null. The
+     * network's accumulator is updated with each move, so evaluating it only reads the accumulator.
+     *
+     * @param network {@link NeuralNetwork} for this game's board size, or null
+     */
+    public void setNeuralNetwork(NeuralNetwork network) {
+        this.network = network;
+        this.evaluator = new IncrementalEvaluator(this.board.getPieces(), this.parameters, network);
+    }
+
+    /**
+     * Counts the leaf nodes of the tree of legal actions from the current state to the given depth. Counts for
+     * well-known positions are established, so this is used to verify that move generation is exact.
+     *
+     * @param depth number of plies to search
+     * @return number of leaf nodes
+     */
+    public long perft(int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        long nodes = 0;
+        for (Action action : this.distinctUpdates()) {
+            if (!this.makeMove(action)) {
+                // The action was not legal (ex. it left the king in check), so it is not a node
+                continue;
+            }
+            nodes += this.perft(depth - 1);
+            this.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Performs {@link #perft(int)} and splits its leaf node count by each legal action from the current state,
+     * which narrows down which action's subtree a miscount belongs to. The time taken is recorded as well to
+     * measure the throughput of move generation.
+     *
+     * @param depth number of plies to search
+     * @return {@link PerftResult} with the node count of each action
+     */
+    public PerftResult divide(int depth) {
+        long startTime = System.nanoTime();
+        Map<String, Long> divide = new LinkedHashMap<>();
+        if (depth > 0) {
+            for (Action action : this.distinctUpdates()) {
+                if (!this.makeMove(action)) {
+                    continue;
+                }
+                String promotion = action.getPromotion() != null ? action.getPromotion().toLowerCase() : "";
+                divide.put(action.getStart().toString() + action.getEnd() + promotion, this.perft(depth - 1));
+                this.unmakeMove();
+            }
+        }
+        return new PerftResult(depth, divide, System.nanoTime() - startTime);
     }
 
     public String toJson() {
@@ -347,40 +704,251 @@ public class ChessGame implements Game {
 
     // PRIVATE METHODS
 
-    private int evaluateBoardState() {
-        int whiteSum = 0;
-        int blackSum = 0;
-        for (Piece p : board.getPieces()) {
-            if (Colour.WHITE.equals(p.getColour())) {
-                whiteSum += this.getPieceValue(p);
-            } else {
-                blackSum += this.getPieceValue(p);
+    private boolean applyMove(Point start, Point end, Piece movingPiece, String promotion) {
+        LogEntry<Point, Piece> entry = this.board.movePiece(start, end, this.log,
+                this.getThreatMap(Colour.opposite(this.player)));
+        this.log.push(entry);
+        this.refreshEvaluation(entry);
+        this.updateKingPosition(movingPiece, end);
+
+        // Update opponent's threats with the move performed
+        this.getThreatMap(Colour.opposite(this.player)).removeThreats(entry.getEndObject());
+        this.getThreatMap(Colour.opposite(this.player)).refreshThreats(this.board.getPieces(), this.log, start);
+        this.getThreatMap(Colour.opposite(this.player)).refreshThreats(this.board.getPieces(), this.log, end);
+        LogEntry<Point, Piece> subEntry = entry.getSubLogEntry();
+        if (subEntry != null) {
+            // A piece removed by the follow-up (ex. en passant) can open a line to the turn player's king
+            if (subEntry.getEnd() == null) {
+                this.getThreatMap(Colour.opposite(this.player)).removeThreats(subEntry.getStartObject());
+            }
+            this.getThreatMap(Colour.opposite(this.player)).refreshThreats(this.board.getPieces(), this.log,
+                    subEntry.getStart());
+        }
+        // Does moving this piece put turn player in check? (opponent's updated threats now include turn player's king)
+        if (this.isKingInCheck(this.player)) {
+            LogEntry<Point, Piece> logEntry = this.log.pop();
+            // soft undo update, which does not alter turn or player nor check game status
+            // Threats are refreshed after each entry is undone, in reverse order of how they were applied
+            this.undoLogEntryToBoard(logEntry);
+            this.applyLogEntryToThreats(logEntry);
+            if (logEntry.getSubLogEntry() != null) {
+                this.undoLogEntryToBoard(logEntry.getSubLogEntry());
+                this.applyLogEntryToThreats(logEntry.getSubLogEntry());
             }
+            this.refreshEvaluation(logEntry);
+            this.updateKingPosition(movingPiece, start);
+            return false;
+        }
+
+        // Update remaining threats
+        this.getThreatMap(this.player).refreshThreats(this.board.getPieces(), this.log, start);
+        this.getThreatMap(this.player).refreshThreats(this.board.getPieces(), this.log, end);
+        if (entry.getSubLogEntry() != null) {
+            this.applyLogEntryToThreats(entry.getSubLogEntry());
+        }
+
+        if (this.board.getPiece(start) != null) {
+            throw new IllegalActionException("cannot perform move as it cannot move to " + end);
+        }
+        this.history.push(this.getPositionKey(), this.isIrreversible(entry), this.resetsClock(entry));
+
+        // Promote the piece if it can be promoted
+        List<String> promoteOptions = movingPiece.promoteOptions();
+        if (movingPiece.canPromote(this.board.getPieces())) {
+            this.promotePoint = end;
+            if (!promoteOptions.isEmpty()) {
+                // The action's selection is used if it is an option, otherwise the first option
+                this.promotePiece(promotion != null && promoteOptions.contains(promotion) ? promotion
+                        : promoteOptions.get(0));
+            }
+        } else {
+            // Piece was not promoted (if promotion was not enforced), so remove ability to promote it
+            this.promotePoint = null;
+        }
+        this.legalDestinations = null;
+        return true;
+    }
+
+    private void takeSnapshot() {
+        int ply = this.log.size();
+        if (!this.history.canSeek(this.history.size() + 1)) {
+            // Nothing after the previous ply can be redone, so the snapshots from this ply on can be of actions that
+            // were undone and replaced
+            this.snapshots.tailMap(ply, true).clear();
+        }
+        if ((ply - this.firstPly) % SNAPSHOT_INTERVAL == 0) {
+            // The board is at this ply now, so it replaces any snapshot kept for it
+            this.snapshots.put(ply, BoardSnapshot.of(this.board.getPieces()));
         }
-        return whiteSum - blackSum;
+    }
+
+    private void locateKings() {
+        this.whiteKing = null;
+        this.blackKing = null;
+        for (Piece p : this.board.getPieces()) {
+            if (PieceType.KING.getCode().equals(p.getCode())) {
+                if (Colour.WHITE.equals(p.getColour())) {
+                    this.whiteKing = p.getPoint();
+                } else {
+                    this.blackKing = p.getPoint();
+                }
+            }
+        }
+    }
+
+    private void classifyStatus() {
+        // The status is found by the player who made the latest action, as it is after an update
+        this.player = Colour.opposite(this.player);
+        this.status = this.checkGameStatus();
+        this.player = Colour.opposite(this.player);
+    }
+
+    private void revertMove(LogEntry<Point, Piece> logEntry) {
+        if (logEntry.getSubLogEntry() != null) {
+            this.undoLogEntryToBoard(logEntry.getSubLogEntry());
+            this.applyLogEntryToThreats(logEntry.getSubLogEntry());
+        }
+        this.undoLogEntryToBoard(logEntry);
+        this.applyLogEntryToThreats(logEntry);
+        this.refreshEvaluation(logEntry);
+        this.history.pop();
+
+        this.updateKingPosition(logEntry.getStartObject(), logEntry.getStart());
+        this.legalDestinations = null;
+    }
+
+    private int evaluatePawnStructure() {
+        if (this.pawnHashTable == null) {
+            // Created once the game is evaluated, as most games held by a server are never searched
+            this.pawnHashTable = new PawnHashTable();
+        }
+        long key = this.evaluator.getPawnKey();
+        int[] terms = this.pawnHashTable.get(key);
+        if (terms == null) {
+            terms = this.countPawnStructure();
+            this.pawnHashTable.put(key, terms);
+        }
+        int midgame = 0;
+        int endgame = 0;
+        for (int i = 0; i < terms.length; i++) {
+            midgame += terms[i] * this.parameters.getPawnStructureWeight(i, EvaluationParameters.MIDGAME);
+            endgame += terms[i] * this.parameters.getPawnStructureWeight(i, EvaluationParameters.ENDGAME);
+        }
+        return this.evaluator.taper(midgame, endgame);
+    }
+
+    private int[] countPawnStructure() {
+        // Each term is White's count minus Black's
+        int[] terms = this.whiteThreats.getPawnStructure(this.board.getPieces());
+        int[] blackTerms = this.blackThreats.getPawnStructure(this.board.getPieces());
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] -= blackTerms[i];
+        }
+        return terms;
+    }
+
+    private int evaluateActivity() {
+        int mobilityMidgame = this.parameters.getMobilityWeight(EvaluationParameters.MIDGAME);
+        int mobilityEndgame = this.parameters.getMobilityWeight(EvaluationParameters.ENDGAME);
+        int kingMidgame = this.parameters.getKingAttackWeight(EvaluationParameters.MIDGAME);
+        int kingEndgame = this.parameters.getKingAttackWeight(EvaluationParameters.ENDGAME);
+        if (mobilityMidgame == 0 && mobilityEndgame == 0 && kingMidgame == 0 && kingEndgame == 0) {
+            return 0;
+        }
+        // Both terms are read from the counts the threat maps keep, without generating any moves
+        int mobility = this.whiteThreats.getThreatCount() - this.blackThreats.getThreatCount();
+        int kingAttacks = this.countKingAttacks(Colour.WHITE) - this.countKingAttacks(Colour.BLACK);
+        return this.evaluator.taper(mobility * mobilityMidgame + kingAttacks * kingMidgame,
+                mobility * mobilityEndgame + kingAttacks * kingEndgame);
+    }
+
+    private int countKingAttacks(Colour kingColour) {
+        Point king = this.getKingPosition(kingColour);
+        if (king == null) {
+            return 0;
+        }
+        ThreatMap threats = this.getThreatMap(Colour.opposite(kingColour));
+        int count = 0;
+        for (int x = king.getX() - 1; x <= king.getX() + 1; x++) {
+            for (int y = king.getY() - 1; y <= king.getY() + 1; y++) {
+                if (this.board.getPieces().isInBounds(x, y)) {
+                    count += threats.getThreatCount(x, y);
+                }
+            }
+        }
+        return count;
     }
 
     private int getPieceValue(Piece p) {
         if (p == null) {
             return 0;
         }
-        int value;
-        switch (PieceType.fromCode(p.getCode())) {
-            case PAWN -> value = 1;
-            case BISHOP, KNIGHT -> value = 3;
-            case ROOK -> value = 5;
-            case QUEEN -> value = 9;
-            case CUSTOM -> {
-                // Currently, this uses MoveSet, but this would be more accurate to use its blueprint
-                MoveSet moveSet = p.getMoves(this.board.getPieces(), this.log,
-                        this.getThreatMap(Colour.opposite(p.getColour())));
-                int numMoves = moveSet.getPoints().size();
-                int base = (int) Math.ceil(numMoves / 3.0);
-                value = base + base / 3;
+        // Custom pieces are valued from their specification when built, so they are the same in every position
+        return this.evaluator.taper(this.parameters.getMaterial(p, EvaluationParameters.MIDGAME),
+                this.parameters.getMaterial(p, EvaluationParameters.ENDGAME));
+    }
+
+    private int getExchangeValue(Piece p, int kingValue) {
+        return Pieces.isKing(p) ? kingValue : this.getPieceValue(p);
+    }
+
+    private int getKingExchangeValue() {
+        // A king can capture, but it must never be captured, so it outweighs all the material that could be won
+        // with it. Material is loaded from the parameters, so this is found from them rather than fixed.
+        int total = 1;
+        for (Piece piece : this.board.getPieces()) {
+            if (!Pieces.isKing(piece)) {
+                total += Math.abs(this.getPieceValue(piece));
             }
-            default -> value = 0;
         }
-        return value;
+        return total;
+    }
+
+    private Piece getLeastValuableAttacker(Plane<Piece> plane, Point target, Colour colour, int kingValue) {
+        Set<Piece> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        candidates.addAll(this.getThreatMap(colour).getPieces(target));
+        // Sliders behind removed pieces are not in the threat map, so the first piece on each line is considered
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                if (dx == 0 && dy == 0) {
+                    continue;
+                }
+                int x = target.getX() + dx;
+                int y = target.getY() + dy;
+                while (plane.isInBounds(x, y)) {
+                    Piece piece = plane.get(new Point(x, y));
+                    if (piece != null) {
+                        candidates.add(piece);
+                        break;
+                    }
+                    x += dx;
+                    y += dy;
+                }
+            }
+        }
+
+        Piece least = null;
+        int leastValue = Integer.MAX_VALUE;
+        for (Piece piece : candidates) {
+            if (!Pieces.isAllied(colour, piece) || plane.get(piece.getPoint()) != piece) {
+                continue; // Not this side's, or already used in the exchange
+            }
+            int value = this.getExchangeValue(piece, kingValue);
+            if (value < leastValue && piece.getMoves(plane, this.log, null, true, true).contains(target)) {
+                least = piece;
+                leastValue = value;
+            }
+        }
+        return least;
+    }
+
+    private Collection<Action> distinctUpdates() {
+        // Paths can overlap (ex. a pawn's single and double step), so the same action can be generated twice
+        Set<Action> actions = new LinkedHashSet<>();
+        for (Action action : this.potentialUpdates()) {
+            actions.add(action);
+        }
+        return actions;
     }
 
     private Colour opponent() {
@@ -442,18 +1010,21 @@ public class ChessGame implements Game {
         return null;
     }
 
-    private ThreatMap getThreatMap(Colour colour) {
+    private MoveMap getMoveMap(Colour colour) {
+        // Created when first needed, then maintained by the map itself as the board changes
         if (Colour.WHITE.equals(colour)) {
-            return whiteThreats;
+            if (this.whiteMoves == null) {
+                this.whiteMoves = new MoveMap(colour, this.board, this.log, this.blackThreats);
+            }
+            return this.whiteMoves;
         } else {
-            return blackThreats;
+            if (this.blackMoves == null) {
+                this.blackMoves = new MoveMap(colour, this.board, this.log, this.whiteThreats);
+            }
+            return this.blackMoves;
         }
     }
 
-    private MoveMap getMoveMap(Colour colour) {
-        return new MoveMap(colour, this.board.getPieces(), this.log, this.getThreatMap(Colour.opposite(colour)));
-    }
-
     private GameStatus checkGameStatus() {
         Colour opponent = Colour.opposite(this.player);
         // Is there a check, checkmate or stalemate?
@@ -462,126 +1033,350 @@ public class ChessGame implements Game {
             if (this.isCheckmate()) {
                 nextStatus = GameStatus.colourWinStatus(this.player);
             } else {
-                nextStatus = GameStatus.colourInCheckStatus(opponent);
+                nextStatus = this.checkDrawStatus(GameStatus.colourInCheckStatus(opponent));
             }
         } else {
             if (this.isStalemate()) {
                 nextStatus = GameStatus.STALEMATE;
             } else {
-                nextStatus = GameStatus.ONGOING;
+                nextStatus = this.checkDrawStatus(GameStatus.ONGOING);
             }
         }
         return nextStatus;
     }
 
+    private GameStatus checkDrawStatus(GameStatus otherwise) {
+        // Each is read from counters kept as the game changes, so none of them generate moves
+        if (this.evaluator.isInsufficientMaterial()) {
+            return GameStatus.INSUFFICIENT_MATERIAL;
+        } else if (this.history.getHalfmoveClock() >= FIFTY_MOVE_PLIES) {
+            return GameStatus.FIFTY_MOVE_RULE;
+        } else if (this.history.countRepetitions() >= 3) {
+            return GameStatus.THREEFOLD_REPETITION;
+        }
+        return otherwise;
+    }
+
     private boolean isCheckmate() {
-        Colour oppColour = Colour.opposite(this.player);
-        Point oppKingPoint = this.getKingPosition(Colour.opposite(this.player));
-        if (oppKingPoint == null || this.board.getPiece(oppKingPoint) == null) {
-        }
-        // Assuming King is in check
-        MoveSet oppKingMoveSet = this.board.getPiece(oppKingPoint)
-                .getMoves(this.board.getPieces(), this.log, this.getThreatMap(this.player));
-        if (oppKingMoveSet != null && !oppKingMoveSet.isEmpty()) {
-            for (Point p : oppKingMoveSet.getPoints()) {
-                // Is there a location the opponent king can move to that is not threatened by the opponent?
-                if (this.getThreatMap(this.player).hasNoThreats(p)) {
-                    // Yes, so the king is not in checkmate
-                    return false;
+        // Assuming the opponent's king is in check
+        return !this.hasLegalMove(Colour.opposite(this.player));
+    }
+
+    private boolean isStalemate() {
+        // Only kings remaining is insufficient material, which checkDrawStatus finds unless the player cannot move
+        return !this.hasLegalMove(Colour.opposite(this.player));
+    }
+
+    /**
+     * Verifies if a player has any legal move, stopping at the first one found. Pieces with the fewest moves to
+     * generate are tried first (pawns, knights and kings before sliding pieces), as any one of them moving is enough.
+     *
+     * @param colour {@link Colour} of the player to move
+     * @return true if the player has a legal move, otherwise false
+     */
+    private boolean hasLegalMove(Colour colour) {
+        Colour opponent = Colour.opposite(colour);
+        ThreatMap opponentThreats = this.getThreatMap(opponent);
+        Point kingPoint = this.getKingPosition(colour);
+        BitSet evasions = this.getEvasions(kingPoint, opponentThreats);
+
+        // Pawns and knights are tried as they are found, and the other pieces once they have all been
+        List<Piece> later = new ArrayList<>();
+        for (Piece piece : this.board.getPieces()) {
+            if (!Pieces.isAllied(colour, piece) || this.board.getPiece(piece.getPoint()) != piece) {
+                continue;
+            }
+            PieceType type = PieceType.fromCode(piece.getCode());
+            if (type == PieceType.PAWN || type == PieceType.KNIGHT) {
+                if (this.hasLegalDestination(piece, kingPoint, evasions, opponent, opponentThreats)) {
+                    return true;
                 }
+            } else {
+                later.add(piece);
+            }
+        }
+        later.sort(Comparator.comparingInt(p -> this.getMoveCost(PieceType.fromCode(p.getCode()))));
+        for (Piece piece : later) {
+            if (this.hasLegalDestination(piece, kingPoint, evasions, opponent, opponentThreats)) {
+                return true;
             }
         }
+        return false;
+    }
 
-        // The opponent king cannot move, but can another piece move to block all sources of check?
-        Set<Piece> sourcesOfCheck = this.getThreatMap(this.player).getPieces(oppKingPoint);
-        if (sourcesOfCheck.size() > 1) {
-            // A piece cannot simultaneously capture one piece and block another, as neither were original blocked
-            return true;
+    private int getMoveCost(PieceType type) {
+        // Kings are verified on a virtual board for each destination, but have at most a few of them
+        return switch (type) {
+            case KING -> 0;
+            case BISHOP, ROOK -> 1;
+            case QUEEN -> 2;
+            default -> 3;
+        };
+    }
+
+    private boolean hasLegalDestination(Piece piece, Point kingPoint, BitSet evasions, Colour opponent,
+            ThreatMap opponentThreats) {
+        MoveSet moves = this.board.getMoves(piece, this.log, opponentThreats);
+        if (moves.isEmpty()) {
+            return false;
         }
-        // There is only one threatening check
-        for (Piece p : sourcesOfCheck) {
-            // Can this piece be captured by the opponent?
-            Set<Piece> defenders = this.getThreatMap(oppColour).getPieces(p.getPoint());
-            if (!defenders.isEmpty()) {
-                // Yes, as this piece can be captured by a non-king, the opponent has a legal move to prevent check
-                return false;
+        BitSet pinLine = kingPoint == null || Pieces.isKing(piece) ? null
+                : this.getPinLine(piece, kingPoint, opponentThreats);
+        for (Point p : moves.getPoints()) {
+            if (this.isLegalDestination(piece, moves.getMove(p), p, kingPoint, evasions, pinLine, opponent)) {
+                return true;
             }
-            // Can a piece block its path?
-            Movement causingCheck = p.getMoves(this.board.getPieces(), this.log).getMove(oppKingPoint);
-            if (causingCheck == null) {
-                throw new NullPointerException("exception in game state, move causing check should not be null");
+        }
+        return false;
+    }
+
+    private Map<Point, BitSet> computeLegalDestinations() {
+        Map<Point, BitSet> destinations = new LinkedHashMap<>();
+        if (GameStatus.isCompletedGameStatus(this.status)) {
+            return destinations;
+        }
+        Colour opponent = Colour.opposite(this.player);
+        ThreatMap opponentThreats = this.getThreatMap(opponent);
+        Point kingPoint = this.getKingPosition(this.player);
+        BitSet evasions = this.getEvasions(kingPoint, opponentThreats);
+
+        for (Piece piece : this.board.getPieces()) {
+            if (!Pieces.isAllied(this.player, piece) || this.board.getPiece(piece.getPoint()) != piece) {
+                // A piece not on the point it reports cannot be moved from there, so its moves are not legal
+                continue;
             }
-            MoveMap moveMap = new MoveMap(oppColour, this.board.getPieces(), this.log, this.getThreatMap(this.player));
-            for (Point c : causingCheck.getPath()) {
-                // Yes, there is at least one non-king piece that can move to a point along the path causing check
-                if (!moveMap.hasNoMove(c, true)) {
-                    return false;
+            MoveSet moves = this.board.getMoves(piece, this.log, opponentThreats);
+            BitSet pinLine = kingPoint == null || Pieces.isKing(piece) ? null
+                    : this.getPinLine(piece, kingPoint, opponentThreats);
+            BitSet bits = new BitSet();
+            for (Point p : moves.getPoints()) {
+                if (this.isLegalDestination(piece, moves.getMove(p), p, kingPoint, evasions, pinLine, opponent)) {
+                    bits.set(p.toIndex());
                 }
             }
+            if (!bits.isEmpty()) {
+                destinations.put(piece.getPoint(), bits);
+            }
         }
-        return true;
+        return destinations;
     }
 
-    private boolean isStalemate() {
-        // Only kings remain, which is a stalemate
-        if (this.board.getPieces().size() <= 2) {
-            return true;
-        }
-        // Are there any opponent pieces that can move?
-        List<Piece> opponentPieces = this.board.getPieces().values().stream()
-                .filter(p -> Colour.opposite(this.player).equals(p.getColour()))
-                .collect(Collectors.toList());
-        for (Piece p : opponentPieces) {
-            if (!p.getMoves(this.board.getPieces(), this.log, this.getThreatMap(this.player)).isEmpty()) {
+    /**
+     * Finds the points a non-king piece must move to when its king is in check (capture or block).
+     *
+     * @return BitSet of the points, which is empty if only the king can escape, or null if not in check
+     */
+    private BitSet getEvasions(Point kingPoint, ThreatMap opponentThreats) {
+        Set<Piece> checkers = kingPoint == null ? Set.of() : opponentThreats.getPieces(kingPoint);
+        if (checkers.size() > 1) {
+            // Only the king can escape more than one check
+            return new BitSet();
+        } else if (checkers.size() == 1) {
+            return this.getCheckEvasions(checkers.iterator().next(), kingPoint);
+        }
+        return null;
+    }
+
+    private boolean isLegalDestination(Piece piece, Movement move, Point p, Point kingPoint, BitSet evasions,
+            BitSet pinLine, Colour opponent) {
+        if (Pieces.isKing(piece)) {
+            // Threats stop at the king, so points behind it on a line of attack must be verified without it
+            return this.isSafeAfterRemoving(piece.getPoint(), p, null, p, opponent);
+        }
+        if (move.getFollowUpMove() != null && move.getFollowUpMove().getEnd() == null) {
+            // A move removing another piece (ex. en passant) can open lines other than its own
+            return this.isSafeAfterRemoving(piece.getPoint(), p, move.getFollowUpMove().getStart(), kingPoint,
+                    opponent);
+        }
+        return (evasions == null || evasions.get(p.toIndex())) && (pinLine == null || pinLine.get(p.toIndex()));
+    }
+
+    /**
+     * Finds the points a non-king piece can move to that stop the check from this piece, which is capturing it or
+     * blocking its line to the king.
+     */
+    private BitSet getCheckEvasions(Piece checker, Point kingPoint) {
+        BitSet evasions = new BitSet();
+        evasions.set(checker.getPoint().toIndex());
+        Point direction = this.getLineDirection(checker.getPoint(), kingPoint);
+        if (direction != null) {
+            Movement attack = checker.getMoves(this.board.getPieces(), this.log, null, true, false)
+                    .getMove(kingPoint);
+            Point p = new Point(checker.getPoint().getX() + direction.getX(),
+                    checker.getPoint().getY() + direction.getY());
+            // Only points along the line that the checker attacks through can block it (ex. not for a jump)
+            while (!p.equals(kingPoint) && attack != null && attack.getPath().hasPoint(p)) {
+                evasions.set(p.toIndex());
+                p = new Point(p.getX() + direction.getX(), p.getY() + direction.getY());
+            }
+        }
+        return evasions;
+    }
+
+    /**
+     * Finds the points a piece is restricted to if it is pinned to its king, which is the line between the king
+     * and the pinning piece (including capturing it).
+     *
+     * @return BitSet of the pin line, or null if the piece is not pinned
+     */
+    private BitSet getPinLine(Piece piece, Point kingPoint, ThreatMap opponentThreats) {
+        Point direction = this.getLineDirection(kingPoint, piece.getPoint());
+        if (direction == null || opponentThreats.hasNoThreats(piece.getPoint())) {
+            return null;
+        }
+        // The piece must be the first piece from the king along this line
+        Point p = new Point(kingPoint.getX() + direction.getX(), kingPoint.getY() + direction.getY());
+        while (!p.equals(piece.getPoint())) {
+            if (this.board.getPiece(p) != null) {
+                return null;
+            }
+            p = new Point(p.getX() + direction.getX(), p.getY() + direction.getY());
+        }
+        // The next piece beyond it must be an opponent attacking it that would attack the king without it
+        p = new Point(p.getX() + direction.getX(), p.getY() + direction.getY());
+        while (this.board.isInBounds(p) && this.board.getPiece(p) == null) {
+            p = new Point(p.getX() + direction.getX(), p.getY() + direction.getY());
+        }
+        Piece pinner = this.board.getPiece(p);
+        if (pinner == null || !opponentThreats.getPieces(piece.getPoint()).contains(pinner)
+                || this.isSafeAfterRemoving(piece.getPoint(), null, null, kingPoint, pinner)) {
+            return null;
+        }
+        BitSet pinLine = new BitSet();
+        p = new Point(kingPoint.getX() + direction.getX(), kingPoint.getY() + direction.getY());
+        while (!p.equals(pinner.getPoint())) {
+            pinLine.set(p.toIndex());
+            p = new Point(p.getX() + direction.getX(), p.getY() + direction.getY());
+        }
+        pinLine.set(pinner.getPoint().toIndex());
+        return pinLine;
+    }
+
+    /**
+     * Verifies the king is safe after moving a piece and removing another, on a virtual board.
+     */
+    private boolean isSafeAfterRemoving(Point start, Point end, Point removed, Point kingPoint, Colour opponent) {
+        Plane<Piece> after = this.boardAfter(start, end, removed);
+        for (Piece p : after) {
+            if (Pieces.isAllied(opponent, p)
+                    && p.getMoves(after, this.log, null, true, false).contains(kingPoint)) {
                 return false;
             }
         }
         return true;
     }
 
+    /**
+     * Verifies the king is safe from the given attacker after moving a piece and removing another, on a virtual
+     * board.
+     */
+    private boolean isSafeAfterRemoving(Point start, Point end, Point removed, Point kingPoint, Piece attacker) {
+        Plane<Piece> after = this.boardAfter(start, end, removed);
+        return !attacker.getMoves(after, this.log, null, true, false).contains(kingPoint);
+    }
+
+    private Plane<Piece> boardAfter(Point start, Point end, Point removed) {
+        Map<Point, Piece> changes = new HashMap<>();
+        Piece moving = this.board.getPiece(start);
+        changes.put(start, null);
+        if (removed != null) {
+            changes.put(removed, null);
+        }
+        if (end != null && moving != null) {
+            changes.put(end, moving);
+        }
+        return new VirtualPlane<>(this.board.getPieces(), changes);
+    }
+
+    /**
+     * Finds the single step from start towards end if they are on the same rank, file or diagonal.
+     *
+     * @return {@link Point} of the x and y step, or null if they are not on a line
+     */
+    private Point getLineDirection(Point start, Point end) {
+        int diffX = end.getX() - start.getX();
+        int diffY = end.getY() - start.getY();
+        if ((diffX == 0 && diffY == 0) || (diffX != 0 && diffY != 0 && Math.abs(diffX) != Math.abs(diffY))) {
+            return null;
+        }
+        return new Point(Integer.signum(diffX), Integer.signum(diffY));
+    }
+
     private List<Action> getActionsAgainstCheck(Colour playerInCheck) {
         List<Action> actions = new ArrayList<>();
         // This method assumes a player is in check
         Colour causingCheck = Colour.opposite(playerInCheck);
         Point inCheckKing = this.getKingPosition(playerInCheck);
-        MoveSet inCheckMoves = this.board.getPiece(inCheckKing).getMoves(this.board.getPieces(), this.log,
+        MoveSet inCheckMoves = this.board.getMoves(this.board.getPiece(inCheckKing), this.log,
                 this.getThreatMap(causingCheck));
 
         if (inCheckMoves != null && !inCheckMoves.isEmpty()) {
             for (Point p : inCheckMoves.getPoints()) {
                 // Is there a location the opponent king can move to that is not threatened by the opponent?
-                if (this.getThreatMap(this.player).hasNoThreats(p)) {
+                if (this.getThreatMap(causingCheck).hasNoThreats(p)) {
                     // Yes, so the king is not in checkmate
                     actions.add(new Action(playerInCheck, inCheckKing, p));
                 }
             }
         }
 
-        // The opponent king cannot move, but can another piece move to block all sources of check?
+        // Can another piece move to capture or block all sources of check?
         Set<Piece> sourcesOfCheck = this.getThreatMap(causingCheck).getPieces(inCheckKing);
         if (sourcesOfCheck.size() > 1) {
-            // A piece cannot simultaneously capture one piece and block another, as neither were original blocked
-            return List.of();
+            // A piece cannot simultaneously capture one piece and block another, so only the king can escape
+            return actions;
         }
 
         for (Piece attacker : sourcesOfCheck) {
             // Can this piece be captured by the opponent?
             Set<Piece> defenders = this.getThreatMap(playerInCheck).getPieces(attacker.getPoint());
             for (Piece defender : defenders) {
-                actions.add(new Action(playerInCheck, defender.getPoint(), attacker.getPoint()));
+                // The king can only capture the attacker if the attacker is not protected
+                if (!Pieces.isKing(defender) || this.getThreatMap(causingCheck).hasNoThreats(attacker.getPoint())) {
+                    this.addActions(actions, defender, attacker.getPoint());
+                }
+            }
+            // Can it be removed by a follow-up instead of captured on its point (ex. en passant)?
+            for (Piece remover : this.board.getPieces()) {
+                if (!Pieces.isAllied(playerInCheck, remover) || Pieces.isKing(remover)) {
+                    continue;
+                }
+                for (Movement m : this.board.getMoves(remover, this.log, this.getThreatMap(causingCheck)).toSet()) {
+                    LogEntry<Point, Piece> followUp = m.getFollowUpMove();
+                    if (followUp != null && followUp.getEnd() == null
+                            && attacker.getPoint().equals(followUp.getStart())) {
+                        this.addActions(actions, remover, m.getPath().getPoint(m.getPath().length() - 1));
+                    }
+                }
             }
             // Can a piece block its path?
-            Movement moveCausingCheck = attacker.getMoves(this.board.getPieces(), this.log).getMove(inCheckKing);
+            Movement moveCausingCheck = this.board.getMoves(attacker, this.log, null).getMove(inCheckKing);
             if (moveCausingCheck == null) {
                 throw new NullPointerException("exception in game state, move causing check should not be null");
             }
             MoveMap moveMap = this.getMoveMap(playerInCheck);
             for (Point pointOnPath : moveCausingCheck.getPath()) {
                 for (Piece blocker : moveMap.getPieces(pointOnPath)) {
-                    actions.add(new Action(playerInCheck, blocker.getPoint(), pointOnPath));
+                    this.addActions(actions, blocker, pointOnPath);
                 }
             }
         }
         return actions;
     }
+
+    /**
+     * Adds the action of a piece moving to a point, or an action for each piece it can promote to there.
+     */
+    private void addActions(List<Action> actions, Piece piece, Point end) {
+        // A piece promotes on the opponent's back rank, which canPromote only finds once it is there
+        int promotionRank = Colour.WHITE.equals(piece.getColour()) ? this.board.getPieces().getMaxY()
+                : this.board.getPieces().getMinY();
+        List<String> promoteOptions = end.getY() == promotionRank ? piece.promoteOptions() : List.of();
+        if (promoteOptions.isEmpty()) {
+            actions.add(new Action(piece.getColour(), piece.getPoint(), end));
+        }
+        for (String option : promoteOptions) {
+            actions.add(new Action(piece.getColour(), piece.getPoint(), end, option));
+        }
+    }
 }
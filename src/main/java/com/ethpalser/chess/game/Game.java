@@ -31,8 +31,54 @@ public interface Game {
 
     Iterable<Action> potentialUpdates();
 
+    /**
+     * Performs an action for a search, which may skip validating it and classifying the status of the game.
+     *
+     * @param action {@link Action} from {@link #potentialUpdates()}
+     * @return true if the action was performed, otherwise false
+     */
+    default boolean makeMove(Action action) {
+        return !GameStatus.NO_CHANGE.equals(this.updateGame(action));
+    }
+
+    /**
+     * Undoes the latest action performed by {@link #makeMove(Action)}.
+     */
+    default void unmakeMove() {
+        this.undoUpdate(1, false);
+    }
+
     int evaluateState();
 
+    /**
+     * Verifies if the action captures a piece.
+     *
+     * @param action {@link Action} to verify
+     * @return true if the action captures a piece, otherwise false
+     */
+    default boolean isCapture(Action action) {
+        return false;
+    }
+
+    /**
+     * Evaluates the exchange of captures that an action starts (static exchange evaluation).
+     *
+     * @param action {@link Action} that captures a piece
+     * @return material gained by the acting player, negative if it loses material or 0 if it is not a capture
+     */
+    default int see(Action action) {
+        return 0;
+    }
+
+    /**
+     * Verifies if the current state occurred before, which a search treats as a draw as it can be repeated again.
+     *
+     * @return true if the current state is a repetition, otherwise false
+     */
+    default boolean isRepetition() {
+        return false;
+    }
+
     String toJson();
 
 }
@@ -11,11 +11,21 @@ public enum GameStatus {
     WHITE_WIN,
     BLACK_WIN,
     STALEMATE,
+    THREEFOLD_REPETITION,
+    FIFTY_MOVE_RULE,
+    INSUFFICIENT_MATERIAL,
     NO_CHANGE;
 
     public static boolean isCompletedGameStatus(GameStatus status) {
         return switch (status) {
-            case WHITE_WIN, BLACK_WIN, STALEMATE -> true;
+            case WHITE_WIN, BLACK_WIN -> true;
+            default -> isDrawStatus(status);
+        };
+    }
+
+    public static boolean isDrawStatus(GameStatus status) {
+        return switch (status) {
+            case STALEMATE, THREEFOLD_REPETITION, FIFTY_MOVE_RULE, INSUFFICIENT_MATERIAL -> true;
             default -> false;
         };
     }
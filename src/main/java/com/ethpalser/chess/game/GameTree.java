@@ -1,8 +1,15 @@
 package com.ethpalser.chess.game;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public class GameTree {
 
     private static final int WINNING_THRESHOLD = Integer.MAX_VALUE / 4;
+    private static final int QUIESCENCE_DEPTH = 4;
     private final Game root;
 
     public GameTree(Game root) {
@@ -21,9 +28,13 @@ public class GameTree {
             int alpha = Integer.MIN_VALUE;
             int beta = Integer.MAX_VALUE;
 
-            Iterable<Action> iterable = this.root.potentialUpdates();
+            Iterable<Action> iterable = this.orderActions(this.root.potentialUpdates());
             for (Action action : iterable) {
-                int value = alphabeta(action, depth - 1, alpha, beta, !maximizingPlayer);
+                if (!this.root.makeMove(action)) {
+                    continue;
+                }
+                int value = alphabeta(depth - 1, alpha, beta, !maximizingPlayer);
+                this.root.unmakeMove();
                 if (maximizingPlayer && value > alpha) {
                     // Winning move shouldn't be ignored if available, as it was deemed min and max for a branch.
                     if (alpha >= WINNING_THRESHOLD) {
@@ -55,11 +66,15 @@ public class GameTree {
 
         int best = Integer.MIN_VALUE;
         for (int d = 1; d <= depth; d++) {
-            Iterable<Action> it = this.root.potentialUpdates();
+            Iterable<Action> it = this.orderActions(this.root.potentialUpdates());
 
             int alpha = Integer.MIN_VALUE;
             for (Action action : it) {
-                alpha = Math.max(alpha, alphabeta(action, d - 1, alpha, Integer.MAX_VALUE, false));
+                if (!this.root.makeMove(action)) {
+                    continue;
+                }
+                alpha = Math.max(alpha, alphabeta(d - 1, alpha, Integer.MAX_VALUE, false));
+                this.root.unmakeMove();
             }
             // Winning move shouldn't be ignored if available, as it was deemed min and max for a branch.
             if (alpha >= WINNING_THRESHOLD) {
@@ -73,56 +88,123 @@ public class GameTree {
         return best;
     }
 
-    private int alphabeta(Action node, int depth, int alpha, int beta, boolean maximizingPlayer) {
-        if (node == null) {
-            return maximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+    /**
+     * Searches the state reached by the latest action. Actions are made in search mode, which does not classify the
+     * game's status, so a checkmate or stalemate is found here when none of the generated actions can be made.
+     */
+    private int alphabeta(int depth, int alpha, int beta, boolean maximizingPlayer) {
+        // A repeated state can be repeated until it is a draw, so searching its cycle again is not needed
+        if (this.root.isRepetition() || GameStatus.isDrawStatus(this.root.getStatus())) {
+            return 0;
         }
+        // Wins are not checked for, as search actions never classify one and are the only way to reach this state
 
-        GameStatus status = this.root.updateGame(node);
-        if (GameStatus.NO_CHANGE.equals(status)) {
-            return maximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        Iterable<Action> it = this.root.potentialUpdates();
+        if (!it.iterator().hasNext()) {
+            // Checkmate, or stalemate which is a draw
+            return this.isInCheck(maximizingPlayer) ? this.lossFor(maximizingPlayer) : 0;
         }
-        if (GameStatus.WHITE_WIN.equals(status)) {
-            int result = Integer.MAX_VALUE;
-            this.root.undoUpdate(1, false);
-            return result;
+        if (depth <= 0 && !this.isInCheck(maximizingPlayer)) {
+            // Captures are searched further, so the evaluation is not of a state in the middle of an exchange
+            return this.quiesce(it, QUIESCENCE_DEPTH, alpha, beta, maximizingPlayer);
+        }
+        // Otherwise a player in check at the last ply has their actions searched, as they may all be illegal
+        it = this.orderActions(it);
+
+        boolean hasLegalAction = false;
+        int best = maximizingPlayer ? alpha : beta;
+        for (Action action : it) {
+            if (!this.root.makeMove(action)) {
+                continue;
+            }
+            hasLegalAction = true;
+            if (maximizingPlayer) {
+                best = Math.max(best, alphabeta(depth - 1, best, beta, false));
+            } else {
+                best = Math.min(best, alphabeta(depth - 1, alpha, best, true));
+            }
+            this.root.unmakeMove();
+            // A case was encountered that guarantees minimax decision won't change (player wouldn't choose this)
+            if (maximizingPlayer ? best >= beta : best <= alpha) {
+                break;
+            }
         }
-        if (GameStatus.BLACK_WIN.equals(status)) {
-            int result = Integer.MIN_VALUE;
-            this.root.undoUpdate(1, false);
-            return result;
+        if (!hasLegalAction) {
+            // Checkmate, or stalemate which is a draw
+            return this.isInCheck(maximizingPlayer) ? this.lossFor(maximizingPlayer) : 0;
         }
+        return best;
+    }
 
-        Iterable<Action> it = this.root.potentialUpdates();
-        if (depth <= 0 || !it.iterator().hasNext()) {
-            int result = this.root.evaluateState();
-            this.root.undoUpdate(1, false);
-            return result;
+    // PRIVATE METHODS
+
+    private boolean isInCheck(boolean maximizingPlayer) {
+        GameStatus inCheck = maximizingPlayer ? GameStatus.WHITE_IN_CHECK : GameStatus.BLACK_IN_CHECK;
+        return inCheck.equals(this.root.getStatus());
+    }
+
+    private int lossFor(boolean maximizingPlayer) {
+        return maximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+    }
+
+    private int quiesce(Iterable<Action> actions, int depth, int alpha, int beta, boolean maximizingPlayer) {
+        // The player to act may decline every capture, so the current state bounds the result (stand pat)
+        int standPat = this.root.evaluateState();
+        if (depth <= 0 || (maximizingPlayer ? standPat >= beta : standPat <= alpha)) {
+            return standPat;
         }
+        int best = standPat;
+        for (Action action : this.orderActions(actions)) {
+            // Captures are ordered first and by exchange value, so the remaining actions are not worth searching
+            if (!this.root.isCapture(action) || this.root.see(action) < 0) {
+                break;
+            }
+            if (!this.root.makeMove(action)) {
+                continue;
+            }
+            int value;
+            if (maximizingPlayer) {
+                value = this.quiesce(this.root.potentialUpdates(), depth - 1, Math.max(alpha, best), beta, false);
+            } else {
+                value = this.quiesce(this.root.potentialUpdates(), depth - 1, alpha, Math.min(beta, best), true);
+            }
+            this.root.unmakeMove();
 
-        if (maximizingPlayer) {
-            int localMax = alpha;
-            for (Action action : it) {
-                localMax = Math.max(localMax, alphabeta(action, depth - 1, localMax, beta, false));
-                // A case was encountered that guarantees minimax decision won't change (player wouldn't choose this)
-                if (localMax >= beta) {
-                    break;
-                }
+            best = maximizingPlayer ? Math.max(best, value) : Math.min(best, value);
+            if (maximizingPlayer ? best >= beta : best <= alpha) {
+                break;
             }
-            this.root.undoUpdate(1, false);
-            return localMax;
-        } else {
-            int localMin = beta;
-            for (Action action : it) {
-                localMin = Math.min(localMin, alphabeta(action, depth - 1, alpha, localMin, true));
-                // A case was encountered that guarantees minimax decision won't change (player wouldn't choose this)
-                if (localMin <= alpha) {
-                    break;
-                }
+        }
+        return best;
+    }
+
+    private List<Action> orderActions(Iterable<Action> actions) {
+        // Captures that win material are searched first and captures that lose it last, as cut-offs come sooner
+        Map<Action, Integer> exchanges = new HashMap<>();
+        List<Action> captures = new ArrayList<>();
+        List<Action> quietActions = new ArrayList<>();
+        for (Action action : actions) {
+            if (this.root.isCapture(action)) {
+                exchanges.computeIfAbsent(action, this.root::see);
+                captures.add(action);
+            } else {
+                quietActions.add(action);
             }
-            this.root.undoUpdate(1, false);
-            return localMin;
         }
+        if (captures.isEmpty()) {
+            return quietActions;
+        }
+        captures.sort(Comparator.comparingInt(exchanges::get).reversed());
+
+        List<Action> ordered = new ArrayList<>(captures.size() + quietActions.size());
+        int losing = 0;
+        while (losing < captures.size() && exchanges.get(captures.get(losing)) >= 0) {
+            ordered.add(captures.get(losing));
+            losing++;
+        }
+        ordered.addAll(quietActions);
+        ordered.addAll(captures.subList(losing, captures.size()));
+        return ordered;
     }
 
 }
@@ -0,0 +1,66 @@
+package com.ethpalser.chess.game;
+
+import java.util.Map;
+
+/**
+ * Result of a perft search, holding the leaf node count of each action from the searched position (its divide)
+ * and the time it took to count them.
+ */
+public class PerftResult {
+
+    private final int depth;
+    private final Map<String, Long> divide;
+    private final long nodes;
+    private final long elapsedNanos;
+
+    public PerftResult(int depth, Map<String, Long> divide, long elapsedNanos) {
+        this.depth = depth;
+        this.divide = divide;
+        this.elapsedNanos = elapsedNanos;
+        long sum = 0;
+        for (Long count : divide.values()) {
+            sum += count;
+        }
+        this.nodes = sum;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * @return Map of each action, in coordinate notation (ex. e2e4), to the leaf nodes counted after it
+     */
+    public Map<String, Long> getDivide() {
+        return this.divide;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    public long getNodesPerSecond() {
+        if (this.elapsedNanos <= 0) {
+            return 0;
+        }
+        return (long) (this.nodes / (this.elapsedNanos / 1_000_000_000.0));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> entry : this.divide.entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+        }
+        sb.append("\n")
+                .append("Depth: ").append(this.depth).append("\n")
+                .append("Nodes: ").append(this.nodes).append("\n")
+                .append("Time (ms): ").append(this.elapsedNanos / 1_000_000).append("\n")
+                .append("Nodes/second: ").append(this.getNodesPerSecond());
+        return sb.toString();
+    }
+}
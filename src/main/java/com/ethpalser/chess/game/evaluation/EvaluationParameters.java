@@ -0,0 +1,292 @@
+package com.ethpalser.chess.game.evaluation;
+
+import com.ethpalser.chess.move.map.ThreatMap;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.piece.custom.CustomPiece;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * EvaluationParameters are the weights of each evaluation term, with one weight for the midgame and one for the
+ * endgame, in centipawns so a tuned weight can change by less than a pawn. A position's score blends the two by its
+ * game phase, which is the sum of the phase weights of the pieces on the board, from {@link #getMaxPhase()} at the
+ * start of a game to 0 when only kings and pawns remain.
+ * <p>
+ * Parameters are read from JSON, so weights tuned for a variant are used without changing the code. Each weight is
+ * a pair of [midgame, endgame], and piece-square tables have {@link PieceSquareTables#BASE_SIZE} rows from White's
+ * side:
+ * <pre>
+ * {
+ *   "material": {"P": [100, 100], "N": [300, 300], ...},
+ *   "midgameTables": {"N": [...]},
+ *   "endgameTables": {"N": [...]},
+ *   "pawnWall": [100, 100],
+ *   "pawnCenterControl": [100, 100],
+ *   "doubledPawns": [-100, -100],
+ *   "mobility": [0, 0],
+ *   "kingAttacks": [0, 0],
+ *   "phase": {"N": 1, "B": 1, "R": 2, "Q": 4},
+ *   "maxPhase": 24
+ * }
+ * </pre>
+ * Terms left out of a file have no weight, and custom pieces without material are valued by
+ * {@link CustomPiece#getValue()}.
+ */
+public class EvaluationParameters {
+
+    public static final int MIDGAME = 0;
+    public static final int ENDGAME = 1;
+
+    private Map<String, int[]> material;
+    private Map<String, int[]> midgameTables;
+    private Map<String, int[]> endgameTables;
+    private int[] pawnWall;
+    private int[] pawnCenterControl;
+    private int[] doubledPawns;
+    private int[] mobility;
+    private int[] kingAttacks;
+    private Map<String, Integer> phase;
+    private int maxPhase;
+
+    private transient PieceSquareTables midgamePieceSquareTables;
+    private transient PieceSquareTables endgamePieceSquareTables;
+
+    private EvaluationParameters() {
+        this.material = new HashMap<>();
+        this.midgameTables = new HashMap<>();
+        this.endgameTables = new HashMap<>();
+        this.phase = new HashMap<>();
+    }
+
+    /**
+     * Creates the parameters of a standard game, where each term has the same weight in the midgame and endgame.
+     *
+     * @return default {@link EvaluationParameters}
+     */
+    public static EvaluationParameters defaults() {
+        EvaluationParameters parameters = new EvaluationParameters();
+        parameters.material.put("P", new int[]{100, 100});
+        parameters.material.put("N", new int[]{300, 300});
+        parameters.material.put("B", new int[]{300, 300});
+        parameters.material.put("R", new int[]{500, 500});
+        parameters.material.put("Q", new int[]{900, 900});
+        parameters.material.put("K", new int[]{0, 0});
+        parameters.pawnWall = new int[]{100, 100};
+        parameters.pawnCenterControl = new int[]{100, 100};
+        parameters.doubledPawns = new int[]{-100, -100};
+        parameters.mobility = new int[]{0, 0};
+        parameters.kingAttacks = new int[]{0, 0};
+        parameters.phase.put("N", 1);
+        parameters.phase.put("B", 1);
+        parameters.phase.put("R", 2);
+        parameters.phase.put("Q", 4);
+        parameters.maxPhase = 24;
+        return parameters;
+    }
+
+    public static EvaluationParameters fromJson(String json) {
+        if (json == null) {
+            throw new NullPointerException("json cannot be null");
+        }
+        return validate(new Gson().fromJson(json, EvaluationParameters.class));
+    }
+
+    public static EvaluationParameters load(Reader reader) throws IOException {
+        if (reader == null) {
+            throw new NullPointerException("reader cannot be null");
+        }
+        try {
+            return validate(new Gson().fromJson(reader, EvaluationParameters.class));
+        } catch (JsonParseException e) {
+            throw new IOException("evaluation parameters could not be read", e);
+        }
+    }
+
+    public String toJson() {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        return gson.toJson(this);
+    }
+
+    public void save(Writer writer) throws IOException {
+        if (writer == null) {
+            throw new NullPointerException("writer cannot be null");
+        }
+        writer.write(this.toJson());
+        writer.flush();
+    }
+
+    /**
+     * Lists every tunable weight in a fixed order: material, midgame tables and endgame tables by piece code, then
+     * the pawn structure, mobility and king attack pairs. Phase weights are not tunable.
+     *
+     * @return copy of the weights
+     */
+    public int[] getWeights() {
+        List<int[]> arrays = this.getWeightArrays();
+        int size = 0;
+        for (int[] array : arrays) {
+            size += array.length;
+        }
+        int[] weights = new int[size];
+        int offset = 0;
+        for (int[] array : arrays) {
+            System.arraycopy(array, 0, weights, offset, array.length);
+            offset += array.length;
+        }
+        return weights;
+    }
+
+    /**
+     * Creates a copy of these parameters with different weights, in the order of {@link #getWeights()}.
+     *
+     * @param weights every tunable weight
+     * @return new {@link EvaluationParameters}
+     */
+    public EvaluationParameters withWeights(int[] weights) {
+        EvaluationParameters copy = fromJson(this.toJson());
+        List<int[]> arrays = copy.getWeightArrays();
+        int offset = 0;
+        for (int[] array : arrays) {
+            if (offset + array.length > weights.length) {
+                throw new IllegalArgumentException("expected more than " + weights.length + " weights");
+            }
+            System.arraycopy(weights, offset, array, 0, array.length);
+            offset += array.length;
+        }
+        if (offset != weights.length) {
+            throw new IllegalArgumentException("expected " + offset + " weights but found " + weights.length);
+        }
+        // Tables are copied when they are created, so they are created again with the new weights
+        copy.midgamePieceSquareTables = null;
+        return validate(copy);
+    }
+
+    /**
+     * @param code  code of a piece
+     * @param stage {@link #MIDGAME} or {@link #ENDGAME}
+     * @return the material value of the code in the stage of the game, or 0 if it has none
+     */
+    public int getMaterial(String code, int stage) {
+        int[] weights = this.material.get(code);
+        return weights == null ? 0 : weights[stage];
+    }
+
+    /**
+     * @param piece {@link Piece} to value
+     * @param stage {@link #MIDGAME} or {@link #ENDGAME}
+     * @return the material value of the piece's code in the stage of the game, or the value of a custom piece
+     * without one
+     */
+    public int getMaterial(Piece piece, int stage) {
+        int[] weights = this.material.get(piece.getCode());
+        if (weights == null) {
+            return piece instanceof CustomPiece ? ((CustomPiece) piece).getValue() : 0;
+        }
+        return weights[stage];
+    }
+
+    public PieceSquareTables getPieceSquareTables(int stage) {
+        if (this.midgamePieceSquareTables == null) {
+            this.midgamePieceSquareTables = new PieceSquareTables(this.midgameTables);
+            this.endgamePieceSquareTables = new PieceSquareTables(this.endgameTables);
+        }
+        return stage == MIDGAME ? this.midgamePieceSquareTables : this.endgamePieceSquareTables;
+    }
+
+    /**
+     * @param term  index of a term of {@link ThreatMap#getPawnStructure}
+     * @param stage {@link #MIDGAME} or {@link #ENDGAME}
+     * @return the weight of the pawn structure term in the stage of the game
+     */
+    public int getPawnStructureWeight(int term, int stage) {
+        return switch (term) {
+            case ThreatMap.PAWN_WALL -> this.pawnWall[stage];
+            case ThreatMap.PAWN_CENTER_CONTROL -> this.pawnCenterControl[stage];
+            case ThreatMap.DOUBLED_PAWNS -> this.doubledPawns[stage];
+            default -> throw new IllegalArgumentException("unknown pawn structure term " + term);
+        };
+    }
+
+    /**
+     * @param stage {@link #MIDGAME} or {@link #ENDGAME}
+     * @return the weight of each point a piece threatens
+     */
+    public int getMobilityWeight(int stage) {
+        return this.mobility[stage];
+    }
+
+    /**
+     * @param stage {@link #MIDGAME} or {@link #ENDGAME}
+     * @return the weight of each threat on a point next to or on the king, which is typically negative
+     */
+    public int getKingAttackWeight(int stage) {
+        return this.kingAttacks[stage];
+    }
+
+    public int getPhase(String code) {
+        return this.phase.getOrDefault(code, 0);
+    }
+
+    public int getMaxPhase() {
+        return this.maxPhase;
+    }
+
+    // PRIVATE METHODS
+
+    private List<int[]> getWeightArrays() {
+        List<int[]> arrays = new ArrayList<>(new TreeMap<>(this.material).values());
+        arrays.addAll(new TreeMap<>(this.midgameTables).values());
+        arrays.addAll(new TreeMap<>(this.endgameTables).values());
+        arrays.add(this.pawnWall);
+        arrays.add(this.pawnCenterControl);
+        arrays.add(this.doubledPawns);
+        arrays.add(this.mobility);
+        arrays.add(this.kingAttacks);
+        return arrays;
+    }
+
+    private static EvaluationParameters validate(EvaluationParameters parameters) {
+        if (parameters == null) {
+            throw new IllegalArgumentException("evaluation parameters are empty");
+        }
+        // Terms missing from the file have no weight
+        parameters.material = parameters.material == null ? new HashMap<>() : parameters.material;
+        parameters.midgameTables = parameters.midgameTables == null ? new HashMap<>() : parameters.midgameTables;
+        parameters.endgameTables = parameters.endgameTables == null ? new HashMap<>() : parameters.endgameTables;
+        parameters.phase = parameters.phase == null ? new HashMap<>() : parameters.phase;
+        parameters.pawnWall = validatePair("pawnWall", parameters.pawnWall);
+        parameters.pawnCenterControl = validatePair("pawnCenterControl", parameters.pawnCenterControl);
+        parameters.doubledPawns = validatePair("doubledPawns", parameters.doubledPawns);
+        parameters.mobility = validatePair("mobility", parameters.mobility);
+        parameters.kingAttacks = validatePair("kingAttacks", parameters.kingAttacks);
+        for (Map.Entry<String, int[]> entry : parameters.material.entrySet()) {
+            validatePair("material of " + entry.getKey(), entry.getValue());
+        }
+        if (parameters.maxPhase <= 0) {
+            parameters.maxPhase = 1;
+        }
+        // Tables are validated when they are created
+        parameters.getPieceSquareTables(MIDGAME);
+        return parameters;
+    }
+
+    private static int[] validatePair(String name, int[] pair) {
+        if (pair == null) {
+            return new int[2];
+        }
+        if (pair.length != 2) {
+            throw new IllegalArgumentException(name + " must have a midgame and an endgame weight");
+        }
+        return pair;
+    }
+
+}
@@ -0,0 +1,313 @@
+package com.ethpalser.chess.game.evaluation;
+
+import com.ethpalser.chess.piece.Colour;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.piece.custom.PieceType;
+import com.ethpalser.chess.space.Plane;
+import com.ethpalser.chess.space.Point;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * IncrementalEvaluator keeps the material and piece-square table sums of a board, as White's score minus Black's,
+ * for both the midgame and the endgame, along with the game phase. It remembers the piece and scores of each point,
+ * so only the points that changed are refreshed when a move is made or undone and reading the sums does not look at
+ * the board. A Zobrist key of only the pawns is kept the same way, which identifies the pawn structure for caching
+ * its score, as is the accumulator of a {@link NeuralNetwork} if one is used. A Zobrist key of every piece, including
+ * whether kings and rooks have moved as that decides castling, identifies the position for detecting repetitions,
+ * with the file of a possible en passant capture mixed in when it is read.
+ * Counts of each kind of piece (its material signature) are kept as well, for detecting insufficient material.
+ */
+public class IncrementalEvaluator {
+
+    private static final long PAWN_KEY_SEED = 0x5A0B1257L;
+    private static final int PAWNS = 0;
+    private static final int KNIGHTS = 1;
+    private static final int LIGHT_BISHOPS = 2;
+    private static final int DARK_BISHOPS = 3;
+    private static final int OTHERS = 4;
+
+    private final Plane<Piece> board;
+    private final EvaluationParameters parameters;
+    private final NeuralNetwork network;
+    private final short[] accumulator;
+    private final Map<String, int[][]> scaledTables;
+    private final int width;
+    private final int length;
+    private final Piece[] pieces;
+    private final int[][] materialScores;
+    private final int[][] positionalScores;
+    private final int[] phases;
+    private final int[][] pieceCounts;
+    private final long[] whitePawnKeys;
+    private final long[] blackPawnKeys;
+    private final long[] pointKeys;
+    private final long[] positionKeys;
+    private final long[] enPassantKeys;
+    private final int[] material;
+    private final int[] positional;
+    private int phase;
+    private long pawnKey;
+    private long positionKey;
+
+    /**
+     * Creates an evaluator of the board, which must be refreshed at each point that changes on it.
+     *
+     * @param board      {@link Plane} of pieces to evaluate
+     * @param parameters {@link EvaluationParameters} with the weights of material and the piece-square tables
+     */
+    public IncrementalEvaluator(Plane<Piece> board, EvaluationParameters parameters) {
+        this(board, parameters, null);
+    }
+
+    /**
+     * Creates an evaluator of the board that also keeps the accumulator of a network.
+     *
+     * @param board      {@link Plane} of pieces to evaluate
+     * @param parameters {@link EvaluationParameters} with the weights of material and the piece-square tables
+     * @param network    {@link NeuralNetwork} of the same board size, or null to not use one
+     */
+    public IncrementalEvaluator(Plane<Piece> board, EvaluationParameters parameters, NeuralNetwork network) {
+        if (board == null || parameters == null) {
+            throw new NullPointerException("board and parameters cannot be null");
+        }
+        if (network != null && (network.getWidth() != board.width() || network.getLength() != board.length())) {
+            throw new IllegalArgumentException("network is for a board of " + network.getWidth() + "x"
+                    + network.getLength());
+        }
+        this.board = board;
+        this.parameters = parameters;
+        this.network = network;
+        this.accumulator = network == null ? null : network.newAccumulator();
+        this.scaledTables = new HashMap<>();
+        this.width = board.width();
+        this.length = board.length();
+        this.pieces = new Piece[this.width * this.length];
+        this.materialScores = new int[2][this.pieces.length];
+        this.positionalScores = new int[2][this.pieces.length];
+        this.phases = new int[this.pieces.length];
+        this.pieceCounts = new int[2][OTHERS + 1];
+        this.material = new int[2];
+        this.positional = new int[2];
+        // Keys are the same for every board of a size, so equal structures of different games have equal keys
+        SplittableRandom random = new SplittableRandom(PAWN_KEY_SEED);
+        this.whitePawnKeys = random.longs(this.pieces.length).toArray();
+        this.blackPawnKeys = random.longs(this.pieces.length).toArray();
+        this.pointKeys = random.longs(this.pieces.length).toArray();
+        this.positionKeys = new long[this.pieces.length];
+        this.enPassantKeys = random.longs(this.width).toArray();
+        for (Piece piece : board) {
+            this.refresh(piece.getPoint());
+        }
+    }
+
+    /**
+     * Updates the sums with the piece now at the point, replacing the scores of the piece that was there.
+     *
+     * @param point {@link Point} that may have changed
+     */
+    public void refresh(Point point) {
+        if (point == null || !this.board.isInBounds(point)) {
+            return;
+        }
+        int index = (point.getY() - this.board.getMinY()) * this.width + point.getX() - this.board.getMinX();
+        Piece piece = this.board.get(point);
+        if (piece == this.pieces[index]) {
+            return;
+        }
+        this.pawnKey ^= this.getPawnKey(this.pieces[index], index);
+        this.count(this.pieces[index], index, -1);
+        this.count(piece, index, 1);
+        this.phase -= this.phases[index];
+        if (this.network != null) {
+            this.network.removeFeature(this.accumulator, this.network.getFeature(this.pieces[index], index));
+            this.network.addFeature(this.accumulator, this.network.getFeature(piece, index));
+        }
+        this.pieces[index] = piece;
+        this.pawnKey ^= this.getPawnKey(piece, index);
+        // The key a piece was added with is removed, as whether it has moved may have changed since
+        this.positionKey ^= this.positionKeys[index];
+        this.positionKeys[index] = this.getPositionKey(piece, index);
+        this.positionKey ^= this.positionKeys[index];
+        this.phases[index] = piece == null ? 0 : this.parameters.getPhase(piece.getCode());
+        this.phase += this.phases[index];
+
+        int sign = piece != null && Colour.WHITE.equals(piece.getColour()) ? 1 : -1;
+        for (int stage = EvaluationParameters.MIDGAME; stage <= EvaluationParameters.ENDGAME; stage++) {
+            this.material[stage] -= this.materialScores[stage][index];
+            this.positional[stage] -= this.positionalScores[stage][index];
+            if (piece == null) {
+                this.materialScores[stage][index] = 0;
+                this.positionalScores[stage][index] = 0;
+            } else {
+                this.materialScores[stage][index] = sign * this.parameters.getMaterial(piece, stage);
+                this.positionalScores[stage][index] = sign * this.getBonus(piece, index, stage);
+            }
+            this.material[stage] += this.materialScores[stage][index];
+            this.positional[stage] += this.positionalScores[stage][index];
+        }
+    }
+
+    public int getMaterial() {
+        return this.taper(this.material[EvaluationParameters.MIDGAME], this.material[EvaluationParameters.ENDGAME]);
+    }
+
+    public int getPositional() {
+        return this.taper(this.positional[EvaluationParameters.MIDGAME],
+                this.positional[EvaluationParameters.ENDGAME]);
+    }
+
+    /**
+     * @return game phase from the parameters' max phase at the start of a game to 0 in a pawn endgame
+     */
+    public int getPhase() {
+        return Math.min(this.phase, this.parameters.getMaxPhase());
+    }
+
+    /**
+     * Blends a midgame and an endgame score by the game phase.
+     *
+     * @param midgame score in the midgame
+     * @param endgame score in the endgame
+     * @return the score of the current game phase
+     */
+    public int taper(int midgame, int endgame) {
+        int maxPhase = this.parameters.getMaxPhase();
+        int phase = this.getPhase();
+        return (midgame * phase + endgame * (maxPhase - phase)) / maxPhase;
+    }
+
+    /**
+     * @return Zobrist key of the pawns of both players, which only changes when a pawn moves, is captured or is
+     * promoted
+     */
+    public long getPawnKey() {
+        return this.pawnKey;
+    }
+
+    /**
+     * @return Zobrist key of every piece on the board, which is equal for equal positions and castling rights
+     */
+    public long getPositionKey() {
+        return this.positionKey;
+    }
+
+    /**
+     * @param enPassantX x-coordinate of the pawn that can be captured en passant, or -1 if none can be
+     * @return Zobrist key of every piece on the board, which also differs by the en passant capture that is possible
+     */
+    public long getPositionKey(int enPassantX) {
+        int file = enPassantX - this.board.getMinX();
+        if (file < 0 || file >= this.width) {
+            return this.positionKey;
+        }
+        return this.positionKey ^ this.enPassantKeys[file];
+    }
+
+    /**
+     * Verifies if neither player has the material to checkmate, which is when only kings remain with at most one
+     * knight, or with bishops that are all on squares of the same colour.
+     *
+     * @return true if the material is insufficient, otherwise false
+     */
+    public boolean isInsufficientMaterial() {
+        int knights = 0;
+        int lightBishops = 0;
+        int darkBishops = 0;
+        for (int[] counts : this.pieceCounts) {
+            if (counts[PAWNS] > 0 || counts[OTHERS] > 0) {
+                return false;
+            }
+            knights += counts[KNIGHTS];
+            lightBishops += counts[LIGHT_BISHOPS];
+            darkBishops += counts[DARK_BISHOPS];
+        }
+        if (knights == 0) {
+            return lightBishops == 0 || darkBishops == 0;
+        }
+        return knights == 1 && lightBishops == 0 && darkBishops == 0;
+    }
+
+    public int evaluate() {
+        return this.taper(this.material[EvaluationParameters.MIDGAME] + this.positional[EvaluationParameters.MIDGAME],
+                this.material[EvaluationParameters.ENDGAME] + this.positional[EvaluationParameters.ENDGAME]);
+    }
+
+    public boolean hasNetwork() {
+        return this.network != null;
+    }
+
+    /**
+     * Evaluates the network on the accumulator, which is kept up to date as points are refreshed.
+     *
+     * @return score of the network from White's side
+     */
+    public int evaluateNetwork() {
+        if (this.network == null) {
+            throw new IllegalStateException("evaluator does not have a network");
+        }
+        return this.network.evaluate(this.accumulator);
+    }
+
+    // PRIVATE METHODS
+
+    private long getPawnKey(Piece piece, int index) {
+        if (piece == null || !PieceType.PAWN.getCode().equals(piece.getCode())) {
+            return 0;
+        }
+        return Colour.WHITE.equals(piece.getColour()) ? this.whitePawnKeys[index] : this.blackPawnKeys[index];
+    }
+
+    private void count(Piece piece, int index, int change) {
+        if (piece == null) {
+            return;
+        }
+        int kind = switch (PieceType.fromCode(piece.getCode())) {
+            case KING -> -1;
+            case PAWN -> PAWNS;
+            case KNIGHT -> KNIGHTS;
+            // Squares alternate colours, so a square's colour is the parity of its x and y
+            case BISHOP -> (index % this.width + index / this.width) % 2 == 0 ? DARK_BISHOPS : LIGHT_BISHOPS;
+            default -> OTHERS;
+        };
+        if (kind >= 0) {
+            this.pieceCounts[Colour.WHITE.equals(piece.getColour()) ? 0 : 1][kind] += change;
+        }
+    }
+
+    private long getPositionKey(Piece piece, int index) {
+        if (piece == null) {
+            return 0;
+        }
+        // Custom pieces have any code, so a key for each piece is mixed from the point's key instead of stored
+        long hash = piece.getCode().hashCode() * 4L + (Colour.WHITE.equals(piece.getColour()) ? 0 : 2);
+        if (piece.getHasMoved() && (PieceType.KING.getCode().equals(piece.getCode())
+                || PieceType.ROOK.getCode().equals(piece.getCode()))) {
+            hash += 1;
+        }
+        long key = this.pointKeys[index] + hash * 0x9E3779B97F4A7C15L;
+        key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        return key ^ (key >>> 31);
+    }
+
+    private int getBonus(Piece piece, int index, int stage) {
+        int[][] tables = this.scaledTables.computeIfAbsent(piece.getCode(), code -> new int[][]{
+                this.parameters.getPieceSquareTables(EvaluationParameters.MIDGAME).scale(code, this.width, this.length),
+                this.parameters.getPieceSquareTables(EvaluationParameters.ENDGAME).scale(code, this.width, this.length)
+        });
+        int[] table = tables[stage];
+        if (table == null) {
+            return 0;
+        }
+        if (Colour.WHITE.equals(piece.getColour())) {
+            return table[index];
+        }
+        // Tables are from White's side, so Black's rows are mirrored
+        int x = index % this.width;
+        int y = index / this.width;
+        return table[(this.length - 1 - y) * this.width + x];
+    }
+
+}
@@ -0,0 +1,208 @@
+package com.ethpalser.chess.game.evaluation;
+
+import com.ethpalser.chess.piece.Colour;
+import com.ethpalser.chess.piece.Piece;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NeuralNetwork is a small efficiently updatable network (NNUE) evaluating a position from White's side. Its input
+ * features are each piece code and colour on each point of the board, and its first layer is an int16 accumulator of
+ * the weights of the features present. A move only adds and removes a few features, so the accumulator is updated
+ * with those instead of being found again, and evaluating only reads the accumulator through a clipped ReLU and the
+ * output layer.
+ * <p>
+ * Weights are read from a binary file with the format written by {@link #save(OutputStream)}: a magic number and
+ * version, the board width and length, the piece codes, the size of the first layer, the feature weights and biases
+ * as int16, then the output weights as int16 and the output bias and scale as int32.
+ */
+public class NeuralNetwork {
+
+    public static final int CLIP = 255;
+    private static final int MAGIC = 0x4E4E5545; // NNUE
+    private static final int VERSION = 1;
+
+    private final int width;
+    private final int length;
+    private final List<String> codes;
+    private final Map<String, Integer> codeIndices;
+    private final int hiddenSize;
+    private final short[] featureWeights;
+    private final short[] featureBiases;
+    private final short[] outputWeights;
+    private final int outputBias;
+    private final int outputScale;
+
+    public NeuralNetwork(int width, int length, List<String> codes, int hiddenSize, short[] featureWeights,
+            short[] featureBiases, short[] outputWeights, int outputBias, int outputScale) {
+        if (codes == null || featureWeights == null || featureBiases == null || outputWeights == null) {
+            throw new NullPointerException("codes and weights cannot be null");
+        }
+        if (width <= 0 || length <= 0 || hiddenSize <= 0 || outputScale <= 0) {
+            throw new IllegalArgumentException("board size, hidden size and output scale must be positive");
+        }
+        int features = 2 * codes.size() * width * length;
+        if (featureWeights.length != features * hiddenSize || featureBiases.length != hiddenSize
+                || outputWeights.length != hiddenSize) {
+            throw new IllegalArgumentException("weights do not match a network of " + features + " features and "
+                    + hiddenSize + " hidden nodes");
+        }
+        this.width = width;
+        this.length = length;
+        this.codes = List.copyOf(codes);
+        this.codeIndices = new HashMap<>();
+        for (int i = 0; i < this.codes.size(); i++) {
+            this.codeIndices.put(this.codes.get(i), i);
+        }
+        this.hiddenSize = hiddenSize;
+        this.featureWeights = featureWeights;
+        this.featureBiases = featureBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+        this.outputScale = outputScale;
+    }
+
+    public static NeuralNetwork load(InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            throw new NullPointerException("input stream cannot be null");
+        }
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("not a network file of version " + VERSION);
+        }
+        int width = in.readInt();
+        int length = in.readInt();
+        int numCodes = in.readInt();
+        String[] codes = new String[numCodes];
+        for (int i = 0; i < numCodes; i++) {
+            codes[i] = in.readUTF();
+        }
+        int hiddenSize = in.readInt();
+        short[] featureWeights = readShorts(in, 2 * numCodes * width * length * hiddenSize);
+        short[] featureBiases = readShorts(in, hiddenSize);
+        short[] outputWeights = readShorts(in, hiddenSize);
+        int outputBias = in.readInt();
+        int outputScale = in.readInt();
+        try {
+            return new NeuralNetwork(width, length, List.of(codes), hiddenSize, featureWeights, featureBiases,
+                    outputWeights, outputBias, outputScale);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("network file is not valid", e);
+        }
+    }
+
+    public void save(OutputStream outputStream) throws IOException {
+        if (outputStream == null) {
+            throw new NullPointerException("output stream cannot be null");
+        }
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(this.width);
+        out.writeInt(this.length);
+        out.writeInt(this.codes.size());
+        for (String code : this.codes) {
+            out.writeUTF(code);
+        }
+        out.writeInt(this.hiddenSize);
+        writeShorts(out, this.featureWeights);
+        writeShorts(out, this.featureBiases);
+        writeShorts(out, this.outputWeights);
+        out.writeInt(this.outputBias);
+        out.writeInt(this.outputScale);
+        out.flush();
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getLength() {
+        return this.length;
+    }
+
+    /**
+     * @return a new accumulator with only the first layer's biases, which is of a board without pieces
+     */
+    public short[] newAccumulator() {
+        return this.featureBiases.clone();
+    }
+
+    /**
+     * Finds the input feature of a piece on a point of the board.
+     *
+     * @param piece {@link Piece} on the point
+     * @param index index of the point, which is y * width + x
+     * @return the feature, or -1 if the network does not know the piece's code
+     */
+    public int getFeature(Piece piece, int index) {
+        Integer code = piece == null ? null : this.codeIndices.get(piece.getCode());
+        if (code == null) {
+            return -1;
+        }
+        int colour = Colour.WHITE.equals(piece.getColour()) ? 0 : 1;
+        return (colour * this.codes.size() + code) * this.width * this.length + index;
+    }
+
+    public void addFeature(short[] accumulator, int feature) {
+        if (feature < 0) {
+            return;
+        }
+        // A simple loop over int16 values, which the JIT compiles to vector instructions where the CPU has them
+        int offset = feature * this.hiddenSize;
+        for (int i = 0; i < this.hiddenSize; i++) {
+            accumulator[i] += this.featureWeights[offset + i];
+        }
+    }
+
+    public void removeFeature(short[] accumulator, int feature) {
+        if (feature < 0) {
+            return;
+        }
+        int offset = feature * this.hiddenSize;
+        for (int i = 0; i < this.hiddenSize; i++) {
+            accumulator[i] -= this.featureWeights[offset + i];
+        }
+    }
+
+    /**
+     * Evaluates the output layer on an accumulator.
+     *
+     * @param accumulator first layer of the position, which is updated with its features
+     * @return score of the position from White's side
+     */
+    public int evaluate(short[] accumulator) {
+        int sum = 0;
+        for (int i = 0; i < this.hiddenSize; i++) {
+            int activation = Math.min(Math.max(accumulator[i], 0), CLIP);
+            sum += activation * this.outputWeights[i];
+        }
+        return (sum + this.outputBias) / this.outputScale;
+    }
+
+    // PRIVATE METHODS
+
+    private static short[] readShorts(DataInputStream in, int count) throws IOException {
+        if (count < 0) {
+            throw new IOException("network file has a negative size");
+        }
+        short[] values = new short[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readShort();
+        }
+        return values;
+    }
+
+    private static void writeShorts(DataOutputStream out, short[] values) throws IOException {
+        for (short value : values) {
+            out.writeShort(value);
+        }
+    }
+
+}
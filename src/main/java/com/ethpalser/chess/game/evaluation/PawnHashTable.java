@@ -0,0 +1,65 @@
+package com.ethpalser.chess.game.evaluation;
+
+/**
+ * PawnHashTable caches the terms of pawn structures by their pawn-only Zobrist key. Pawns move far less often than
+ * other pieces, so most positions searched share a structure whose terms were already found. The terms are cached
+ * before they are weighted, so they remain valid when the weights change. The table has a fixed number of entries
+ * and new terms always replace the entry their key maps to.
+ */
+public class PawnHashTable {
+
+    // Searches reach few distinct pawn structures, so a small table keeps most of them while costing each game little
+    public static final int DEFAULT_SIZE = 1 << 10;
+
+    private final long[] keys;
+    private final int[][] terms;
+    private final boolean[] filled;
+    private final int mask;
+
+    public PawnHashTable() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * @param size number of entries, which must be a power of two
+     */
+    public PawnHashTable(int size) {
+        if (size <= 0 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("size must be a positive power of two");
+        }
+        this.keys = new long[size];
+        this.terms = new int[size][];
+        this.filled = new boolean[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Finds the terms of a pawn structure.
+     *
+     * @param key pawn-only Zobrist key of the structure
+     * @return the cached terms, which must not be modified, or null if the entry for the key holds a different
+     * structure
+     */
+    public int[] get(long key) {
+        int index = this.indexOf(key);
+        if (this.filled[index] && this.keys[index] == key) {
+            return this.terms[index];
+        }
+        return null;
+    }
+
+    public void put(long key, int[] terms) {
+        int index = this.indexOf(key);
+        this.keys[index] = key;
+        this.terms[index] = terms;
+        this.filled[index] = true;
+    }
+
+    // PRIVATE METHODS
+
+    private int indexOf(long key) {
+        // The low bits of a Zobrist key are as random as the high bits, which are folded in for small tables
+        return (int) (key ^ (key >>> 32)) & this.mask;
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.ethpalser.chess.game.evaluation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PieceSquareTables holds a bonus for each point a type of piece can be on, from White's side of the board. Tables
+ * are written for a standard 8x8 board and scaled to the size of the board they are used on, so the same tables
+ * apply to boards of custom sizes.
+ */
+public class PieceSquareTables {
+
+    public static final int BASE_SIZE = 8;
+
+    private final Map<String, int[]> tables;
+
+    /**
+     * Creates tables without any bonuses, so only material is evaluated.
+     */
+    public PieceSquareTables() {
+        this(Map.of());
+    }
+
+    /**
+     * Creates tables from a map of piece codes to their table. Each table has {@link #BASE_SIZE} rows of
+     * {@link #BASE_SIZE} bonuses, where the first row is White's back rank and the first column is the a-file.
+     *
+     * @param tables Map of piece code to the table for that type of piece
+     */
+    public PieceSquareTables(Map<String, int[]> tables) {
+        if (tables == null) {
+            throw new NullPointerException("tables cannot be null");
+        }
+        this.tables = new HashMap<>();
+        for (Map.Entry<String, int[]> entry : tables.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().length != BASE_SIZE * BASE_SIZE) {
+                throw new IllegalArgumentException("table for " + entry.getKey() + " must have "
+                        + BASE_SIZE * BASE_SIZE + " values");
+            }
+            this.tables.put(entry.getKey(), entry.getValue().clone());
+        }
+    }
+
+    /**
+     * Scales the table of a type of piece to a board, where each point takes the bonus of the point in the same
+     * relative position on the base table.
+     *
+     * @param code   code of the type of piece
+     * @param width  number of columns on the board
+     * @param length number of rows on the board
+     * @return bonuses of the board indexed by y * width + x, or null if there is no table for the type of piece
+     */
+    public int[] scale(String code, int width, int length) {
+        int[] table = this.tables.get(code);
+        if (table == null) {
+            return null;
+        }
+        int[] scaled = new int[width * length];
+        for (int y = 0; y < length; y++) {
+            int baseY = y * BASE_SIZE / length;
+            for (int x = 0; x < width; x++) {
+                scaled[y * width + x] = table[baseY * BASE_SIZE + x * BASE_SIZE / width];
+            }
+        }
+        return scaled;
+    }
+
+}
@@ -0,0 +1,282 @@
+package com.ethpalser.chess.game.evaluation;
+
+import com.ethpalser.chess.board.Board;
+import com.ethpalser.chess.board.BoardType;
+import com.ethpalser.chess.board.ChessBoard;
+import com.ethpalser.chess.game.ChessGame;
+import com.ethpalser.chess.log.ChessLog;
+import com.ethpalser.chess.log.Log;
+import com.ethpalser.chess.move.map.ThreatMap;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.space.Plane;
+import com.ethpalser.chess.space.Point;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * TexelTuner tunes {@link EvaluationParameters} from positions of finished games, by minimising the error between
+ * each game's result and the result predicted from {@link ChessGame#evaluateState()}. The prediction is a sigmoid of
+ * the score, so a large advantage predicts a win and an even score a draw.
+ * <p>
+ * Positions are read from a file with one position per line: the result of its game (1-0, 0-1, 1/2-1/2, or a
+ * number from 0 to 1 for White), followed by the pieces as they are written for a {@link ChessBoard}, such as
+ * {@code 1-0 wKg1 wQd1 wPf2 bKg8 bPf7}. Empty lines and lines starting with # are skipped.
+ * <p>
+ * Files can be larger than memory, so they are streamed in batches. A position only keeps its pieces and the counts
+ * of the terms that do not depend on the weights, such as mobility, rather than a whole game. Each weight is changed
+ * by a step of a centipawn in either direction and the change is kept if the batch's error is lower (coordinate
+ * descent), with the batch split between the workers of a {@link ForkJoinPool}. Each worker builds one
+ * {@link IncrementalEvaluator} with the weights and moves each of its positions' pieces onto it in turn.
+ */
+public class TexelTuner {
+
+    public static final int DEFAULT_BATCH_SIZE = 16384;
+    public static final double DEFAULT_SCALE = 0.0025;
+
+    private final BoardType boardType;
+    private final ForkJoinPool pool;
+    private final int batchSize;
+    private final double scale;
+
+    public TexelTuner() {
+        this(BoardType.STANDARD, ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE, DEFAULT_SCALE);
+    }
+
+    /**
+     * @param boardType type of board the pieces of each position are placed on
+     * @param pool      {@link ForkJoinPool} that evaluates the positions of a batch
+     * @param batchSize number of positions held in memory and tuned against at once
+     * @param scale     steepness of the sigmoid, as the base 10 logarithm of a win's odds gained per centipawn
+     */
+    public TexelTuner(BoardType boardType, ForkJoinPool pool, int batchSize, double scale) {
+        if (boardType == null || pool == null) {
+            throw new NullPointerException("board type and pool cannot be null");
+        }
+        if (batchSize <= 0 || scale <= 0) {
+            throw new IllegalArgumentException("batch size and scale must be positive");
+        }
+        this.boardType = boardType;
+        this.pool = pool;
+        this.batchSize = batchSize;
+        this.scale = scale;
+    }
+
+    /**
+     * Tunes parameters against a file of positions and writes them to a file that the engine can load with
+     * {@link EvaluationParameters#load(Reader)}.
+     * <p>
+     * Usage: {@code TexelTuner <positions> <output> [initial parameters] [epochs]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TexelTuner <positions> <output> [initial parameters] [epochs]");
+            System.exit(1);
+        }
+        EvaluationParameters initial = EvaluationParameters.defaults();
+        if (args.length > 2) {
+            try (Reader reader = Files.newBufferedReader(Path.of(args[2]), StandardCharsets.UTF_8)) {
+                initial = EvaluationParameters.load(reader);
+            }
+        }
+        int epochs = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        TexelTuner tuner = new TexelTuner();
+        EvaluationParameters tuned = tuner.tune(Path.of(args[0]), initial, epochs);
+        try (Writer writer = Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8)) {
+            tuned.save(writer);
+        }
+        System.out.println("Error: " + tuner.error(Path.of(args[0]), tuned));
+    }
+
+    /**
+     * Tunes each weight of the parameters, passing over the positions file once per epoch.
+     *
+     * @param positions file of positions
+     * @param initial   {@link EvaluationParameters} to start from
+     * @param epochs    number of passes over the file
+     * @return tuned {@link EvaluationParameters}
+     * @throws IOException if the file cannot be read or has a malformed line
+     */
+    public EvaluationParameters tune(Path positions, EvaluationParameters initial, int epochs) throws IOException {
+        int[] weights = initial.getWeights();
+        EvaluationParameters best = initial;
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            try (BufferedReader reader = Files.newBufferedReader(positions, StandardCharsets.UTF_8)) {
+                List<Sample> batch = this.readBatch(reader);
+                while (!batch.isEmpty()) {
+                    best = this.tuneBatch(batch, best, weights);
+                    batch = this.readBatch(reader);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the mean squared error of the parameters' predictions over every position of the file.
+     *
+     * @param positions  file of positions
+     * @param parameters {@link EvaluationParameters} to evaluate with
+     * @return mean squared error, or 0 if there are no positions
+     * @throws IOException if the file cannot be read or has a malformed line
+     */
+    public double error(Path positions, EvaluationParameters parameters) throws IOException {
+        double sum = 0;
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(positions, StandardCharsets.UTF_8)) {
+            List<Sample> batch = this.readBatch(reader);
+            while (!batch.isEmpty()) {
+                sum += this.sumErrors(batch, parameters);
+                count += batch.size();
+                batch = this.readBatch(reader);
+            }
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    // PRIVATE METHODS
+
+    private EvaluationParameters tuneBatch(List<Sample> batch, EvaluationParameters parameters, int[] weights) {
+        EvaluationParameters best = parameters;
+        double bestError = this.sumErrors(batch, best);
+        for (int i = 0; i < weights.length; i++) {
+            for (int step : new int[]{1, -1}) {
+                weights[i] += step;
+                EvaluationParameters candidate = best.withWeights(weights);
+                double error = this.sumErrors(batch, candidate);
+                if (error < bestError) {
+                    best = candidate;
+                    bestError = error;
+                    break;
+                }
+                weights[i] -= step;
+            }
+        }
+        return best;
+    }
+
+    private double sumErrors(List<Sample> batch, EvaluationParameters parameters) {
+        int workers = Math.min(this.pool.getParallelism(), batch.size());
+        try {
+            return this.pool.submit(() -> IntStream.range(0, workers).parallel()
+                    .mapToDouble(i -> this.sumWorkerErrors(batch.subList(i * batch.size() / workers,
+                            (i + 1) * batch.size() / workers), parameters))
+                    .sum()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("tuning was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("a position could not be evaluated", e.getCause());
+        }
+    }
+
+    private double sumWorkerErrors(List<Sample> samples, EvaluationParameters parameters) {
+        Plane<Piece> plane = new ChessBoard(this.boardType, new ChessLog(), List.of()).getPieces();
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(plane, parameters);
+        Piece[] previous = new Piece[0];
+        double sum = 0;
+        for (Sample sample : samples) {
+            // Only the points of the previous and next position are refreshed, so the evaluator is not rebuilt
+            for (Piece piece : previous) {
+                plane.remove(piece.getPoint());
+                evaluator.refresh(piece.getPoint());
+            }
+            for (Piece piece : sample.pieces) {
+                plane.put(piece.getPoint(), piece);
+                evaluator.refresh(piece.getPoint());
+            }
+            previous = sample.pieces;
+            sum += sample.error(evaluator, parameters, this.scale);
+        }
+        return sum;
+    }
+
+    private List<Sample> readBatch(BufferedReader reader) throws IOException {
+        List<Sample> batch = new ArrayList<>();
+        String line;
+        while (batch.size() < this.batchSize && (line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            batch.add(this.parse(line));
+        }
+        return batch;
+    }
+
+    private Sample parse(String line) throws IOException {
+        String[] parts = line.split("\\s+");
+        double result = switch (parts[0]) {
+            case "1-0" -> 1.0;
+            case "0-1" -> 0.0;
+            case "1/2-1/2" -> 0.5;
+            default -> {
+                try {
+                    yield Double.parseDouble(parts[0]);
+                } catch (NumberFormatException e) {
+                    throw new IOException("position has an unknown result: " + line, e);
+                }
+            }
+        };
+        try {
+            Log<Point, Piece> log = new ChessLog();
+            Board board = new ChessBoard(this.boardType, log, Arrays.asList(parts).subList(1, parts.length));
+            // The game is only needed to count the terms, so it is not kept
+            int[] terms = new ChessGame(board, log).countEvaluationTerms();
+            return new Sample(board.getPieces().values().toArray(new Piece[0]), terms, result);
+        } catch (RuntimeException e) {
+            throw new IOException("position could not be read: " + line, e);
+        }
+    }
+
+    private static class Sample {
+
+        private final Piece[] pieces;
+        private final int[] terms;
+        private final double result;
+
+        private Sample(Piece[] pieces, int[] terms, double result) {
+            this.pieces = pieces;
+            this.terms = terms;
+            this.result = result;
+        }
+
+        /**
+         * Scores the position the same way as {@link ChessGame#evaluateState()}, from the evaluator holding its pieces
+         * and the counts of its other terms.
+         */
+        private int evaluate(IncrementalEvaluator evaluator, EvaluationParameters parameters) {
+            int pawnMidgame = 0;
+            int pawnEndgame = 0;
+            for (int i = 0; i < ThreatMap.PAWN_STRUCTURE_TERMS; i++) {
+                pawnMidgame += this.terms[i] * parameters.getPawnStructureWeight(i, EvaluationParameters.MIDGAME);
+                pawnEndgame += this.terms[i] * parameters.getPawnStructureWeight(i, EvaluationParameters.ENDGAME);
+            }
+            int mobility = this.terms[ThreatMap.PAWN_STRUCTURE_TERMS];
+            int kingAttacks = this.terms[ThreatMap.PAWN_STRUCTURE_TERMS + 1];
+            int activityMidgame = mobility * parameters.getMobilityWeight(EvaluationParameters.MIDGAME)
+                    + kingAttacks * parameters.getKingAttackWeight(EvaluationParameters.MIDGAME);
+            int activityEndgame = mobility * parameters.getMobilityWeight(EvaluationParameters.ENDGAME)
+                    + kingAttacks * parameters.getKingAttackWeight(EvaluationParameters.ENDGAME);
+            return evaluator.evaluate() + evaluator.taper(pawnMidgame, pawnEndgame)
+                    + evaluator.taper(activityMidgame, activityEndgame);
+        }
+
+        private double error(IncrementalEvaluator evaluator, EvaluationParameters parameters, double scale) {
+            double predicted = 1.0 / (1.0 + Math.pow(10, -scale * this.evaluate(evaluator, parameters)));
+            double difference = this.result - predicted;
+            return difference * difference;
+        }
+    }
+
+}
@@ -46,6 +46,21 @@ public class ChessLogEntry implements LogEntry<Point, Piece> {
         this.promoted = null;
     }
 
+    /**
+     * Recreates an entry that was recorded before, such as one read back from a {@link PackedLog}, where whether it
+     * was the moved piece's first move is known instead of found from the piece.
+     */
+    ChessLogEntry(Point start, Point end, Piece moved, Piece captured, boolean isFirstMove,
+            LogEntry<Point, Piece> followUpMove, Piece promoted) {
+        this.start = start;
+        this.end = end;
+        this.moved = moved;
+        this.captured = captured;
+        this.isFirstMove = isFirstMove;
+        this.followUp = followUpMove;
+        this.promoted = promoted;
+    }
+
     public ChessLogEntry(Plane<Piece> board, String log) {
         // Cannot convert log string to entry
         if (log == null || log.isEmpty()) {
@@ -0,0 +1,422 @@
+package com.ethpalser.chess.log;
+
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.space.Plane;
+import com.ethpalser.chess.space.Point;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * PackedLog is a {@link Log} with the same behaviour as {@link ChessLog}, which stores each entry as primitives
+ * instead of objects. An entry is two longs, for the points and first move flags of its move and follow-up, and
+ * three ints, for the ids of its moved, captured and promoted pieces and the moved and captured pieces of its
+ * follow-up. Pieces are kept once in a table of ids rather than by type, since undoing an entry must put the same
+ * pieces back on the board. Each id counts the stored references to its piece, and is freed for another piece once
+ * none are left, so pieces made and discarded during a search, such as promotions, do not fill the table.
+ * <p>
+ * Entries are materialised as {@link LogEntry} views when they are read, except the latest entry, which is kept so
+ * {@link #peek()} returns the same view until the log changes. Setting the promotion of that view is written back to
+ * the log. Follow-ups of a follow-up are not stored.
+ */
+public class PackedLog extends AbstractCollection<LogEntry<Point, Piece>> implements Log<Point, Piece> {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int LONGS = 2;
+    private static final int INTS = 3;
+    private static final int POINT_BITS = 16;
+    private static final int NO_POINT = 0xFFFF;
+    private static final int ID_BITS = 16;
+    private static final int MAX_ID = 0xFFFF;
+    private static final long FIRST_MOVE = 1L << (2 * POINT_BITS);
+    private static final long PRESENT = 1L << (2 * POINT_BITS + 1);
+
+    private final Plies logStack;
+    private final Plies undoStack;
+    private final List<Piece> pieces;
+    private final Map<Piece, Integer> ids;
+    private int[] references;
+    private int[] freeIds;
+    private int freeCount;
+    private LogEntry<Point, Piece> latest;
+
+    public PackedLog() {
+        this.logStack = new Plies();
+        this.undoStack = new Plies();
+        this.pieces = new ArrayList<>();
+        this.ids = new IdentityHashMap<>();
+        this.references = new int[INITIAL_CAPACITY + 1];
+        this.freeIds = new int[INITIAL_CAPACITY];
+        this.freeCount = 0;
+        this.latest = null;
+    }
+
+    @Override
+    public void addAll(Plane<Piece> board, List<String> logStrings) {
+        for (String s : logStrings) {
+            this.push(new ChessLogEntry(board, s));
+        }
+    }
+
+    @Override
+    public void push(LogEntry<Point, Piece> item) {
+        if (item != null) {
+            this.latest = null;
+            this.logStack.insert(this.logStack.size, this.encodeMove(item), this.encodeMove(item.getSubLogEntry()),
+                    this.encodePieces(item), this.encodeSubPieces(item), this.idOf(item.getPromotion()));
+            this.retain(this.logStack, this.logStack.size - 1);
+        }
+    }
+
+    /**
+     * Adds an entry before every other entry, as the oldest one, which is where {@link ChessLog#add} adds it.
+     */
+    @Override
+    public boolean add(LogEntry<Point, Piece> item) {
+        if (item == null) {
+            throw new NullPointerException("log entry cannot be null");
+        }
+        this.latest = null;
+        this.logStack.insert(0, this.encodeMove(item), this.encodeMove(item.getSubLogEntry()),
+                this.encodePieces(item), this.encodeSubPieces(item), this.idOf(item.getPromotion()));
+        this.retain(this.logStack, 0);
+        return true;
+    }
+
+    @Override
+    public LogEntry<Point, Piece> peek() {
+        if (this.logStack.size == 0) {
+            return null;
+        }
+        if (this.latest == null) {
+            this.latest = this.materialise(this.logStack, this.logStack.size - 1);
+        }
+        return this.latest;
+    }
+
+    @Override
+    public LogEntry<Point, Piece> pop() {
+        LogEntry<Point, Piece> logEntry = this.peek();
+        if (logEntry != null) {
+            this.latest = null;
+            this.release(this.logStack, this.logStack.size - 1);
+            this.logStack.remove(this.logStack.size - 1);
+        }
+        return logEntry;
+    }
+
+    @Override
+    public LogEntry<Point, Piece> undo() {
+        LogEntry<Point, Piece> logEntry = this.peek();
+        if (logEntry != null) {
+            this.latest = null;
+            this.logStack.moveLatest(this.undoStack);
+        }
+        return logEntry;
+    }
+
+    @Override
+    public LogEntry<Point, Piece> redo() {
+        if (this.undoStack.size == 0) {
+            return null;
+        }
+        this.latest = null;
+        this.undoStack.moveLatest(this.logStack);
+        return this.peek();
+    }
+
+    @Override
+    public int size() {
+        return this.logStack.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.logStack.size == 0;
+    }
+
+    @Override
+    public void clear() {
+        this.latest = null;
+        for (int ply = 0; ply < this.logStack.size; ply++) {
+            this.release(this.logStack, ply);
+        }
+        this.logStack.size = 0;
+    }
+
+    /**
+     * Iterates from the latest entry to the oldest, as {@link ChessLog} does.
+     */
+    @Override
+    public Iterator<LogEntry<Point, Piece>> iterator() {
+        return new Iterator<>() {
+            private int next = PackedLog.this.logStack.size - 1;
+            private int last = -1;
+            private int expectedSize = PackedLog.this.logStack.size;
+
+            @Override
+            public boolean hasNext() {
+                return this.next >= 0;
+            }
+
+            @Override
+            public LogEntry<Point, Piece> next() {
+                if (this.expectedSize != PackedLog.this.logStack.size) {
+                    throw new ConcurrentModificationException();
+                }
+                if (this.next < 0) {
+                    throw new NoSuchElementException();
+                }
+                this.last = this.next--;
+                if (this.last == PackedLog.this.logStack.size - 1) {
+                    return PackedLog.this.peek();
+                }
+                return PackedLog.this.materialise(PackedLog.this.logStack, this.last);
+            }
+
+            @Override
+            public void remove() {
+                if (this.last < 0) {
+                    throw new IllegalStateException();
+                }
+                PackedLog.this.latest = null;
+                PackedLog.this.release(PackedLog.this.logStack, this.last);
+                PackedLog.this.logStack.remove(this.last);
+                this.last = -1;
+                this.expectedSize--;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null) {
+            return false;
+        }
+        if (!(o instanceof PackedLog)) {
+            return false;
+        }
+        PackedLog other = (PackedLog) o;
+        return this.isSame(this.logStack, other, other.logStack) && this.isSame(this.undoStack, other, other.undoStack);
+    }
+
+    @Override
+    public int hashCode() {
+        // Piece ids depend on the order pieces were first logged, so only the points and flags are hashed
+        int hash = 1;
+        for (int i = 0; i < this.logStack.size * LONGS; i++) {
+            hash = 31 * hash + Long.hashCode(this.logStack.moves[i]);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the number of ids in the piece table, including freed ids that are waiting to be reused.
+     */
+    int getPieceTableSize() {
+        return this.pieces.size();
+    }
+
+    // PRIVATE METHODS
+
+    private long encodeMove(LogEntry<Point, Piece> logEntry) {
+        if (logEntry == null) {
+            return 0;
+        }
+        long move = encodePoint(logEntry.getStart()) | (long) encodePoint(logEntry.getEnd()) << POINT_BITS;
+        return move | (logEntry.isFirstOccurrence() ? FIRST_MOVE : 0) | PRESENT;
+    }
+
+    private int encodePieces(LogEntry<Point, Piece> logEntry) {
+        return this.idOf(logEntry.getStartObject()) | this.idOf(logEntry.getEndObject()) << ID_BITS;
+    }
+
+    private int encodeSubPieces(LogEntry<Point, Piece> logEntry) {
+        LogEntry<Point, Piece> subEntry = logEntry.getSubLogEntry();
+        if (subEntry == null) {
+            return 0;
+        }
+        return this.idOf(subEntry.getStartObject()) | this.idOf(subEntry.getEndObject()) << ID_BITS;
+    }
+
+    private static int encodePoint(Point point) {
+        if (point == null) {
+            return NO_POINT;
+        }
+        int index = point.toIndex();
+        if (index < 0 || index >= NO_POINT) {
+            throw new IllegalArgumentException("point " + point + " cannot be logged");
+        }
+        return index;
+    }
+
+    private static Point decodePoint(long move, int shift) {
+        int index = (int) (move >>> shift) & NO_POINT;
+        return index == NO_POINT ? null : Point.fromIndex(index);
+    }
+
+    private int idOf(Piece piece) {
+        if (piece == null) {
+            return 0;
+        }
+        Integer id = this.ids.get(piece);
+        if (id == null) {
+            if (this.freeCount > 0) {
+                id = this.freeIds[--this.freeCount];
+                this.pieces.set(id - 1, piece);
+            } else {
+                if (this.pieces.size() == MAX_ID) {
+                    throw new IllegalStateException("log cannot refer to more than " + MAX_ID + " pieces");
+                }
+                this.pieces.add(piece);
+                id = this.pieces.size();
+                if (id == this.references.length) {
+                    this.references = Arrays.copyOf(this.references, this.references.length * 2);
+                }
+            }
+            this.ids.put(piece, id);
+        }
+        return id;
+    }
+
+    private void retain(Plies plies, int ply) {
+        for (int i = ply * INTS; i < (ply + 1) * INTS; i++) {
+            for (int shift = 0; shift < Integer.SIZE; shift += ID_BITS) {
+                int id = (plies.ids[i] >>> shift) & MAX_ID;
+                if (id != 0) {
+                    this.references[id]++;
+                }
+            }
+        }
+    }
+
+    private void release(Plies plies, int ply) {
+        for (int i = ply * INTS; i < (ply + 1) * INTS; i++) {
+            for (int shift = 0; shift < Integer.SIZE; shift += ID_BITS) {
+                this.releaseId((plies.ids[i] >>> shift) & MAX_ID);
+            }
+        }
+    }
+
+    private void releaseId(int id) {
+        if (id == 0 || --this.references[id] > 0) {
+            return;
+        }
+        // No stored entry refers to this piece, so its id can be given to another
+        this.ids.remove(this.pieces.set(id - 1, null));
+        if (this.freeCount == this.freeIds.length) {
+            this.freeIds = Arrays.copyOf(this.freeIds, this.freeIds.length * 2);
+        }
+        this.freeIds[this.freeCount++] = id;
+    }
+
+    private Piece pieceOf(int ids, int shift) {
+        int id = (ids >>> shift) & MAX_ID;
+        return id == 0 ? null : this.pieces.get(id - 1);
+    }
+
+    private LogEntry<Point, Piece> materialise(Plies plies, int ply) {
+        long move = plies.moves[ply * LONGS];
+        long subMove = plies.moves[ply * LONGS + 1];
+        int movePieces = plies.ids[ply * INTS];
+        int subPieces = plies.ids[ply * INTS + 1];
+        int promoted = plies.ids[ply * INTS + 2];
+
+        LogEntry<Point, Piece> subEntry = null;
+        if ((subMove & PRESENT) != 0) {
+            subEntry = new ChessLogEntry(decodePoint(subMove, 0), decodePoint(subMove, POINT_BITS),
+                    this.pieceOf(subPieces, 0), this.pieceOf(subPieces, ID_BITS), (subMove & FIRST_MOVE) != 0,
+                    null, null);
+        }
+        return new PackedLogEntry(decodePoint(move, 0), decodePoint(move, POINT_BITS), this.pieceOf(movePieces, 0),
+                this.pieceOf(movePieces, ID_BITS), (move & FIRST_MOVE) != 0, subEntry, this.pieceOf(promoted, 0));
+    }
+
+    private boolean isSame(Plies plies, PackedLog other, Plies otherPlies) {
+        if (plies.size != otherPlies.size) {
+            return false;
+        }
+        if (!Arrays.equals(plies.moves, 0, plies.size * LONGS, otherPlies.moves, 0, plies.size * LONGS)) {
+            return false;
+        }
+        for (int i = 0; i < plies.size * INTS; i++) {
+            for (int shift = 0; shift < Integer.SIZE; shift += ID_BITS) {
+                if (this.pieceOf(plies.ids[i], shift) != other.pieceOf(otherPlies.ids[i], shift)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A view of an entry in the log, which writes a promotion back to the log while it is the latest entry.
+     */
+    private class PackedLogEntry extends ChessLogEntry {
+
+        private PackedLogEntry(Point start, Point end, Piece moved, Piece captured, boolean isFirstMove,
+                LogEntry<Point, Piece> followUpMove, Piece promoted) {
+            super(start, end, moved, captured, isFirstMove, followUpMove, promoted);
+        }
+
+        @Override
+        public void setPromotion(Piece promoted) {
+            super.setPromotion(promoted);
+            if (PackedLog.this.latest == this) {
+                int index = (PackedLog.this.logStack.size - 1) * INTS + 2;
+                int replaced = PackedLog.this.logStack.ids[index];
+                int id = PackedLog.this.idOf(promoted);
+                if (id != 0) {
+                    PackedLog.this.references[id]++;
+                }
+                PackedLog.this.logStack.ids[index] = id;
+                PackedLog.this.releaseId(replaced);
+            }
+        }
+    }
+
+    /**
+     * A stack of encoded entries, from the oldest at index 0 to the latest.
+     */
+    private static class Plies {
+
+        private long[] moves = new long[INITIAL_CAPACITY * LONGS];
+        private int[] ids = new int[INITIAL_CAPACITY * INTS];
+        private int size;
+
+        private void insert(int ply, long move, long subMove, int movePieces, int subPieces, int promoted) {
+            if (this.size * LONGS == this.moves.length) {
+                this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+                this.ids = Arrays.copyOf(this.ids, this.ids.length * 2);
+            }
+            System.arraycopy(this.moves, ply * LONGS, this.moves, (ply + 1) * LONGS, (this.size - ply) * LONGS);
+            System.arraycopy(this.ids, ply * INTS, this.ids, (ply + 1) * INTS, (this.size - ply) * INTS);
+            this.moves[ply * LONGS] = move;
+            this.moves[ply * LONGS + 1] = subMove;
+            this.ids[ply * INTS] = movePieces;
+            this.ids[ply * INTS + 1] = subPieces;
+            this.ids[ply * INTS + 2] = promoted;
+            this.size++;
+        }
+
+        private void remove(int ply) {
+            System.arraycopy(this.moves, (ply + 1) * LONGS, this.moves, ply * LONGS, (this.size - ply - 1) * LONGS);
+            System.arraycopy(this.ids, (ply + 1) * INTS, this.ids, ply * INTS, (this.size - ply - 1) * INTS);
+            this.size--;
+        }
+
+        private void moveLatest(Plies to) {
+            int ply = this.size - 1;
+            to.insert(to.size, this.moves[ply * LONGS], this.moves[ply * LONGS + 1], this.ids[ply * INTS],
+                    this.ids[ply * INTS + 1], this.ids[ply * INTS + 2]);
+            this.size--;
+        }
+    }
+
+}
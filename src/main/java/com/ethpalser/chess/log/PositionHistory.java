@@ -0,0 +1,138 @@
+package com.ethpalser.chess.log;
+
+import java.util.Arrays;
+
+/**
+ * PositionHistory is a stack of the key of each position of a game, one per ply, kept alongside its {@link Log}. A
+ * position can only repeat one that came after the last irreversible move (a capture, a pawn move or a change of
+ * castling rights), so each ply also remembers where that move is and repetitions are counted from there. The last
+ * capture or pawn move is remembered the same way, which is the halfmove clock of the fifty-move rule, so undoing a
+ * move restores both. Positions that were undone are kept until a different position replaces them, so they can be
+ * returned to with {@link #seek(int)}.
+ */
+public class PositionHistory {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys;
+    private int[] irreversible;
+    private int[] clockResets;
+    private int size;
+    private int limit;
+
+    /**
+     * Creates a history starting from a position, which is treated as irreversible since what came before it is
+     * unknown.
+     *
+     * @param key key of the starting position
+     */
+    public PositionHistory(long key) {
+        this.keys = new long[INITIAL_CAPACITY];
+        this.irreversible = new int[INITIAL_CAPACITY];
+        this.clockResets = new int[INITIAL_CAPACITY];
+        this.keys[0] = key;
+        this.size = 1;
+        this.limit = 1;
+    }
+
+    /**
+     * Adds the position reached by a move.
+     *
+     * @param key            key of the position
+     * @param isIrreversible true if the move reaching it cannot be undone by another move
+     * @param resetsClock    true if the move is a capture or pawn move, which resets the halfmove clock
+     */
+    public void push(long key, boolean isIrreversible, boolean resetsClock) {
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.irreversible = Arrays.copyOf(this.irreversible, this.size * 2);
+            this.clockResets = Arrays.copyOf(this.clockResets, this.size * 2);
+        }
+        int lastIrreversible = isIrreversible || resetsClock ? this.size : this.irreversible[this.size - 1];
+        int lastReset = resetsClock ? this.size : this.clockResets[this.size - 1];
+        // Redoing a move pushes the position that was undone, so the positions after it are still valid
+        boolean isSame = this.size < this.limit && this.keys[this.size] == key
+                && this.irreversible[this.size] == lastIrreversible && this.clockResets[this.size] == lastReset;
+        this.keys[this.size] = key;
+        this.irreversible[this.size] = lastIrreversible;
+        this.clockResets[this.size] = lastReset;
+        this.size++;
+        if (!isSame) {
+            this.limit = this.size;
+        }
+    }
+
+    /**
+     * Removes the latest position, unless it is the starting position.
+     */
+    public void pop() {
+        if (this.size > 1) {
+            this.size--;
+        }
+    }
+
+    /**
+     * @param size number of positions to keep, including the starting position
+     * @return true if {@link #seek(int)} can return to that many positions, otherwise false
+     */
+    public boolean canSeek(int size) {
+        return 1 <= size && size <= this.limit;
+    }
+
+    /**
+     * Returns to an earlier position, or to a later one that was undone and has not been replaced since.
+     *
+     * @param size number of positions to keep, including the starting position
+     * @return true if the history has that many positions, otherwise false and it is unchanged
+     */
+    public boolean seek(int size) {
+        if (!this.canSeek(size)) {
+            return false;
+        }
+        this.size = size;
+        return true;
+    }
+
+    /**
+     * Replaces the key of the latest position, such as after a piece on it was promoted.
+     *
+     * @param key key of the position
+     */
+    public void replace(long key) {
+        this.keys[this.size - 1] = key;
+        this.limit = this.size;
+    }
+
+    public long peek() {
+        return this.keys[this.size - 1];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return number of plies since the last capture or pawn move, or since the starting position
+     */
+    public int getHalfmoveClock() {
+        return this.size - 1 - this.clockResets[this.size - 1];
+    }
+
+    /**
+     * Counts how many times the latest position has occurred, including itself. Only positions with the same player
+     * to move since the last irreversible move are compared.
+     *
+     * @return number of occurrences, which is at least 1
+     */
+    public int countRepetitions() {
+        int latest = this.size - 1;
+        int count = 1;
+        for (int i = latest - 2; i >= this.irreversible[latest]; i -= 2) {
+            if (this.keys[i] == this.keys[latest]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
@@ -3,16 +3,29 @@ package com.ethpalser.chess.move;
 import com.ethpalser.chess.space.Path;
 import com.ethpalser.chess.space.Point;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 public class MoveSet {
 
     private final Set<Movement> set;
+    // Index of every destination to the movement that reaches it, built as movements are added
+    private final Map<Point, Movement> index;
+    // Square index (see Point#toIndex) of every destination, for lookups without a map access
+    private final BitSet squares;
 
     public MoveSet(Set<Movement> moves) {
         this.set = moves;
+        this.index = new LinkedHashMap<>();
+        this.squares = new BitSet();
+        for (Movement m : moves) {
+            this.indexMove(m);
+        }
     }
 
     public MoveSet(Point... points) {
@@ -24,41 +37,85 @@ public class MoveSet {
         }
         moves.remove(null);
         this.set = moves;
+        this.index = new LinkedHashMap<>();
+        this.squares = new BitSet();
+        for (Movement m : moves) {
+            this.indexMove(m);
+        }
     }
 
     public MoveSet(Path... paths) {
         Set<Movement> moves = new HashSet<>();
         for (Path path : paths) {
-            if (!path.toSet().isEmpty()) {
+            if (path.length() != 0) {
                 moves.add(new Move(path));
             }
         }
         moves.remove(null);
         this.set = moves;
+        this.index = new LinkedHashMap<>();
+        this.squares = new BitSet();
+        for (Movement m : moves) {
+            this.indexMove(m);
+        }
     }
 
     public MoveSet(Movement... moves) {
-        this.set = new HashSet<>(Arrays.asList(moves));
+        this(new HashSet<>(Arrays.asList(moves)));
     }
 
+    /**
+     * Returns the movements of this set. This view cannot be modified, use {@link #addMove(Movement)} instead so
+     * the destination index remains consistent.
+     *
+     * @return unmodifiable Set of {@link Movement}
+     */
     public Set<Movement> toSet() {
-        return this.set;
+        return Collections.unmodifiableSet(this.set);
     }
 
+    /**
+     * Finds the movement that reaches the given point. When more than one movement passes through the point, the
+     * movement that ends on it is preferred, as that is the movement that would place the piece there.
+     *
+     * @param point {@link Point} destination
+     * @return {@link Movement} reaching the point, or null if none do
+     */
     public Movement getMove(Point point) {
-        return this.set.stream().filter(m -> m.getPath().hasPoint(point)).findFirst().orElse(null);
+        if (point == null) {
+            return null;
+        }
+        return this.index.get(point);
+    }
+
+    public boolean contains(Point point) {
+        if (point == null) {
+            return false;
+        }
+        if (!isIndexable(point)) {
+            return this.index.containsKey(point);
+        }
+        return this.squares.get(point.toIndex());
     }
 
     public void addMove(Movement move) {
-        this.set.add(move);
+        if (this.set.add(move)) {
+            this.indexMove(move);
+        }
     }
 
+    /**
+     * Returns every destination of this set. The set is maintained as movements are added, so it is not rebuilt
+     * per call and cannot be modified.
+     *
+     * @return unmodifiable Set of {@link Point}
+     */
     public Set<Point> getPoints() {
-        Set<Point> points = new HashSet<>();
-        for (Movement m : this.set) {
-            points.addAll(m.getPath().toSet());
-        }
-        return points;
+        return Collections.unmodifiableSet(this.index.keySet());
+    }
+
+    public int size() {
+        return this.index.size();
     }
 
     public boolean isEmpty() {
@@ -79,4 +136,33 @@ public class MoveSet {
         sb.append("]");
         return sb.toString();
     }
+
+    // PRIVATE METHODS
+
+    private void indexMove(Movement move) {
+        if (move == null || move.getPath() == null) {
+            return;
+        }
+        Path path = move.getPath();
+        Iterator<Point> iterator = path.iterator();
+        while (iterator.hasNext()) {
+            Point point = iterator.next();
+            if (point == null) {
+                continue;
+            }
+            if (!iterator.hasNext()) {
+                // The movement ends on this point, so it takes priority over movements only passing through it
+                this.index.put(point, move);
+            } else {
+                this.index.putIfAbsent(point, move);
+            }
+            if (isIndexable(point)) {
+                this.squares.set(point.toIndex());
+            }
+        }
+    }
+
+    private static boolean isIndexable(Point point) {
+        return point.getX() >= 0 && point.getY() >= 0 && point.getX() <= Point.MAX_WIDTH;
+    }
 }
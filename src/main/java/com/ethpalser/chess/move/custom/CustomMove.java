@@ -7,6 +7,7 @@ import com.ethpalser.chess.move.Move;
 import com.ethpalser.chess.move.Movement;
 import com.ethpalser.chess.move.custom.condition.Conditional;
 import com.ethpalser.chess.move.custom.condition.ConditionalFactory;
+import com.ethpalser.chess.move.custom.condition.MemoisedConditional;
 import com.ethpalser.chess.move.map.ThreatMap;
 import com.ethpalser.chess.piece.Colour;
 import com.ethpalser.chess.piece.Piece;
@@ -18,10 +19,8 @@ import com.ethpalser.chess.space.custom.reference.ReferenceFactory;
 import com.ethpalser.chess.view.ConditionalView;
 import com.ethpalser.chess.view.MoveView;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 public class CustomMove {
 
@@ -34,6 +33,11 @@ public class CustomMove {
     private final boolean isMove;
     private final List<Conditional<Piece>> conditions;
     private final LogEntry<Point, Piece> followUp;
+    // The path base mirrored into each quadrant as x and y offsets, interleaved and indexed by quadrant
+    private final int[][] offsets;
+    // The quadrants each colour can move in, in the order they are generated
+    private final int[] whiteQuadrants;
+    private final int[] blackQuadrants;
 
     public static class Builder {
         // required
@@ -101,8 +105,11 @@ public class CustomMove {
         this.isSpecificQuadrant = builder.isSpecificQuadrant;
         this.isAttack = builder.isAttack;
         this.isMove = builder.isMove;
-        this.conditions = builder.conditions;
+        this.conditions = MemoisedConditional.memoise(builder.conditions);
         this.followUp = builder.followUp;
+        this.offsets = this.compileOffsets();
+        this.whiteQuadrants = this.compileQuadrants(Colour.WHITE);
+        this.blackQuadrants = this.compileQuadrants(Colour.BLACK);
     }
 
     public CustomMove(Path path, CustomMoveType moveType, boolean mirrorXAxis, boolean mirrorYAxis) {
@@ -115,6 +122,9 @@ public class CustomMove {
         this.isMove = true;
         this.conditions = List.of();
         this.followUp = null;
+        this.offsets = this.compileOffsets();
+        this.whiteQuadrants = this.compileQuadrants(Colour.WHITE);
+        this.blackQuadrants = this.compileQuadrants(Colour.BLACK);
     }
 
     public CustomMove(Plane<Piece> board, Log<Point, Piece> log, MoveView view) {
@@ -141,14 +151,21 @@ public class CustomMove {
             for (ConditionalView cv : view.getConditions()) {
                 conditionalList.add(cFactory.build(cv));
             }
-            this.conditions = conditionalList;
-            ReferenceFactory rFactory = new ReferenceFactory(board, log);
-            this.followUp = new ReferenceLogEntry<>(
-                    board,
-                    rFactory.build(view.getFollowUp().getTarget()),
-                    rFactory.build(view.getFollowUp().getDestination())
-            );
+            this.conditions = MemoisedConditional.memoise(conditionalList);
+            if (view.getFollowUp() == null) {
+                this.followUp = null;
+            } else {
+                ReferenceFactory rFactory = new ReferenceFactory(board, log);
+                this.followUp = new ReferenceLogEntry<>(
+                        board,
+                        rFactory.build(view.getFollowUp().getTarget()),
+                        rFactory.build(view.getFollowUp().getDestination())
+                );
+            }
         }
+        this.offsets = this.compileOffsets();
+        this.whiteQuadrants = this.compileQuadrants(Colour.WHITE);
+        this.blackQuadrants = this.compileQuadrants(Colour.BLACK);
     }
 
     public List<Movement> toMovementList(Plane<Piece> board, ThreatMap threatMap, Colour colour, Point offset,
@@ -161,23 +178,31 @@ public class CustomMove {
             System.err.println("path base is not defined");
             return List.of();
         }
-        if (this.isSpecificQuadrant) {
-            boolean isRight = !mirrorYAxis;
-            boolean isUp = (Colour.WHITE.equals(colour) && !mirrorXAxis)
-                    || (!Colour.WHITE.equals(colour) && mirrorXAxis);
-            Path path = this.getPathInQuadrant(board, threatMap, colour, offset, isRight, isUp, onlyAttacks,
+        // Conditions do not depend on the quadrant, so they are verified once for all of them
+        if (!this.passesConditions(board)) {
+            return List.of();
+        }
+        boolean isKing = Pieces.isKing(board.get(offset));
+        int[] quadrants = Colour.WHITE.equals(colour) ? this.whiteQuadrants : this.blackQuadrants;
+        List<Movement> movements = new ArrayList<>(quadrants.length);
+        for (int quadrant : quadrants) {
+            Path path = this.getPathInQuadrant(board, threatMap, colour, offset, quadrant, isKing, onlyAttacks,
                     includeDefend);
             if (path != null) {
-                return List.of(new Move(path, this.followUp));
-            } else {
-                return List.of();
+                movements.add(new Move(path, this.followUp));
             }
-        } else {
-            return this.getPathsInAllQuadrants(board, threatMap, colour, offset, onlyAttacks, includeDefend)
-                    .stream()
-                    .map(p -> new Move(p, this.followUp))
-                    .collect(Collectors.toList());
         }
+        return movements;
+    }
+
+    /**
+     * Verifies if this movement has any {@link Conditional}. Conditions can refer to any point or to the log, so
+     * the paths of a conditional movement cannot be assumed to only depend on the points they pass.
+     *
+     * @return true if there is at least one condition, otherwise false
+     */
+    public boolean isConditional() {
+        return this.conditions != null && !this.conditions.isEmpty();
     }
 
     public MoveView toView() {
@@ -187,56 +212,71 @@ public class CustomMove {
 
     // PRIVATE
 
-    private List<Path> getPathsInAllQuadrants(Plane<Piece> board, ThreatMap threatMap, Colour colour, Point offset,
-            boolean onlyAttacks, boolean includeDefend) {
-        List<Path> list = new ArrayList<>();
-        if (mirrorXAxis || Colour.WHITE.equals(colour)) {
-            {
-                Path pathQ1 = this.getPathInQuadrant(board, threatMap, colour, offset, true, true, onlyAttacks,
-                        includeDefend);
-                if (pathQ1 != null) {
-                    list.add(pathQ1);
+    private static int quadrant(boolean isRight, boolean isUp) {
+        return (isRight ? 0 : 1) + (isUp ? 0 : 2);
+    }
+
+    private int[][] compileOffsets() {
+        int[][] compiled = new int[4][];
+        List<Point> base = new ArrayList<>();
+        if (this.pathBase != null) {
+            for (Point p : this.pathBase) {
+                if (p == null) {
+                    break;
                 }
+                base.add(p);
             }
-            if (mirrorYAxis) {
-                Path pathQ4 = this.getPathInQuadrant(board, threatMap, colour, offset, false, true, onlyAttacks,
-                        includeDefend);
-                if (pathQ4 != null) {
-                    list.add(pathQ4);
-                }
+        }
+        for (int q = 0; q < 4; q++) {
+            int signX = q % 2 == 0 ? 1 : -1;
+            int signY = q < 2 ? 1 : -1;
+            int[] quadrantOffsets = new int[base.size() * 2];
+            for (int i = 0; i < base.size(); i++) {
+                quadrantOffsets[2 * i] = signX * base.get(i).getX();
+                quadrantOffsets[2 * i + 1] = signY * base.get(i).getY();
             }
+            compiled[q] = quadrantOffsets;
         }
-        if (mirrorXAxis || !Colour.WHITE.equals(colour)) {
-            {
-                Path pathQ2 = this.getPathInQuadrant(board, threatMap, colour, offset, true, false, onlyAttacks,
-                        includeDefend);
-                if (pathQ2 != null) {
-                    list.add(pathQ2);
-                }
+        return compiled;
+    }
+
+    private int[] compileQuadrants(Colour colour) {
+        if (this.isSpecificQuadrant) {
+            boolean isRight = !this.mirrorYAxis;
+            boolean isUp = (Colour.WHITE.equals(colour) && !this.mirrorXAxis)
+                    || (!Colour.WHITE.equals(colour) && this.mirrorXAxis);
+            return new int[]{quadrant(isRight, isUp)};
+        }
+        List<Integer> quadrants = new ArrayList<>(4);
+        if (this.mirrorXAxis || Colour.WHITE.equals(colour)) {
+            quadrants.add(quadrant(true, true));
+            if (this.mirrorYAxis) {
+                quadrants.add(quadrant(false, true));
             }
-            if (mirrorYAxis) {
-                Path pathQ3 = this.getPathInQuadrant(board, threatMap, colour, offset, false, false, onlyAttacks,
-                        includeDefend);
-                if (pathQ3 != null) {
-                    list.add(pathQ3);
-                }
+        }
+        if (this.mirrorXAxis || !Colour.WHITE.equals(colour)) {
+            quadrants.add(quadrant(true, false));
+            if (this.mirrorYAxis) {
+                quadrants.add(quadrant(false, false));
             }
         }
-        return list;
+        return quadrants.stream().mapToInt(Integer::intValue).toArray();
     }
 
     private Path getPathInQuadrant(Plane<Piece> board, ThreatMap threatMap, Colour colour, Point offset,
-            boolean isRight, boolean isUp, boolean onlyAttacks, boolean includeDefend) {
-        if (!this.passesConditions(board) || colour == null || offset == null) {
-            return null;
-        }
-
-        List<Point> points = new LinkedList<>();
-        for (Point p : this.pathBase) {
-            Point next = this.getVectorInQuadrant(p, offset, isRight, isUp);
-            boolean isSafe = threatMap != null && threatMap.hasNoThreats(next);
-            // Not a valid location, out of bounds, or fails its conditions
-            if (next == null || !board.isInBounds(next) || (Pieces.isKing(board.get(offset)) && !isSafe)) {
+            int quadrant, boolean isKing, boolean onlyAttacks, boolean includeDefend) {
+        int[] quadrantOffsets = this.offsets[quadrant];
+        List<Point> points = new ArrayList<>(quadrantOffsets.length / 2);
+        for (int i = 0; i < quadrantOffsets.length; i += 2) {
+            int x = offset.getX() + quadrantOffsets[i];
+            int y = offset.getY() + quadrantOffsets[i + 1];
+            // Not a valid location, out of bounds
+            if (!board.isInBounds(x, y)) {
+                break;
+            }
+            Point next = new Point(x, y);
+            // A king threatens a point whether or not it could move there safely
+            if (isKing && !onlyAttacks && (threatMap == null || !threatMap.hasNoThreats(next))) {
                 break;
             }
 
@@ -264,15 +304,6 @@ public class CustomMove {
         return new Path(points);
     }
 
-    private Point getVectorInQuadrant(Point vector, Point offset, boolean isRight, boolean isUp) {
-        if (vector == null || offset == null) {
-            return null;
-        }
-        int x = isRight ? offset.getX() + vector.getX() : offset.getX() - vector.getX();
-        int y = isUp ? offset.getY() + vector.getY() : offset.getY() - vector.getY();
-        return new Point(x, y);
-    }
-
     /**
      * Verifies that all {@link Conditional} defined in this Movement are meeting their criteria.
      *
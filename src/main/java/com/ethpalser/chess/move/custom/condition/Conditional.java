@@ -1,8 +1,11 @@
 package com.ethpalser.chess.move.custom.condition;
 
+import com.ethpalser.chess.log.Log;
 import com.ethpalser.chess.space.Plane;
+import com.ethpalser.chess.space.Point;
 import com.ethpalser.chess.space.Positional;
 import com.ethpalser.chess.view.ConditionalView;
+import java.util.List;
 
 /**
  * Conditional describes an object that has conditions, rule or criteria, that it contains. The criteria will take
@@ -12,6 +15,26 @@ public interface Conditional<T extends Positional> {
 
     boolean isExpected(Plane<T> plane);
 
+    /**
+     * Finds the points of the plane this condition reads, so its result can be reused while none of these points
+     * change (see {@link MemoisedConditional}).
+     *
+     * @param plane {@link Plane} the condition is verified with
+     * @return List of {@link Point}, or null if it reads from anything other than the plane's points and logs
+     */
+    default List<Point> getPointDependencies(Plane<T> plane) {
+        return null;
+    }
+
+    /**
+     * Finds the logs whose last entry this condition reads.
+     *
+     * @return List of {@link Log}
+     */
+    default List<Log<?, ?>> getLogDependencies() {
+        return List.of();
+    }
+
     ConditionalView toView();
 
 }
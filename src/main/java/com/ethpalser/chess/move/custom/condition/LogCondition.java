@@ -5,6 +5,7 @@ import com.ethpalser.chess.space.Plane;
 import com.ethpalser.chess.space.Point;
 import com.ethpalser.chess.space.Positional;
 import com.ethpalser.chess.view.ConditionalView;
+import java.util.List;
 
 public class LogCondition<T extends Positional> implements Conditional<T> {
 
@@ -58,6 +59,19 @@ public class LogCondition<T extends Positional> implements Conditional<T> {
         }
     }
 
+    @Override
+    public List<Point> getPointDependencies(Plane<T> plane) {
+        return List.of();
+    }
+
+    @Override
+    public List<Log<?, ?>> getLogDependencies() {
+        if (this.log == null) {
+            return List.of();
+        }
+        return List.of(this.log);
+    }
+
     @Override
     public ConditionalView toView() {
         return new ConditionalView(ConditionalType.LOG, null, this.propType, this.comparator, this.expected);
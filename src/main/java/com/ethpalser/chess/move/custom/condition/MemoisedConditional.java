@@ -0,0 +1,111 @@
+package com.ethpalser.chess.move.custom.condition;
+
+import com.ethpalser.chess.log.Log;
+import com.ethpalser.chess.space.Plane;
+import com.ethpalser.chess.space.Point;
+import com.ethpalser.chess.space.Positional;
+import com.ethpalser.chess.space.VirtualPlane;
+import com.ethpalser.chess.view.ConditionalView;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MemoisedConditional wraps a condition to reuse its last result while nothing it reads has changed. These are the
+ * points it reads on the plane it was verified with, and the last entry of the logs it reads. A condition that
+ * cannot list what it reads is always verified again, as is a condition on a {@link VirtualPlane}, whose replaced
+ * points change without changing its versions.
+ */
+public class MemoisedConditional<T extends Positional> implements Conditional<T> {
+
+    private final Conditional<T> condition;
+    private Plane<T> plane;
+    private long version;
+    private List<Point> points;
+    private List<Object> lastEntries;
+    private boolean result;
+
+    public MemoisedConditional(Conditional<T> condition) {
+        this.condition = condition;
+    }
+
+    public static <T extends Positional> List<Conditional<T>> memoise(List<Conditional<T>> conditions) {
+        if (conditions == null) {
+            return null;
+        }
+        List<Conditional<T>> memoised = new ArrayList<>(conditions.size());
+        for (Conditional<T> condition : conditions) {
+            if (condition == null || condition instanceof MemoisedConditional) {
+                memoised.add(condition);
+            } else {
+                memoised.add(new MemoisedConditional<>(condition));
+            }
+        }
+        return memoised;
+    }
+
+    @Override
+    public boolean isExpected(Plane<T> plane) {
+        List<Point> dependencies = this.condition.getPointDependencies(plane);
+        if (plane == null || plane instanceof VirtualPlane || dependencies == null) {
+            return this.condition.isExpected(plane);
+        }
+        List<Object> entries = this.getLastEntries(this.condition.getLogDependencies());
+        if (this.isUnchanged(plane, dependencies, entries)) {
+            return this.result;
+        }
+        this.result = this.condition.isExpected(plane);
+        this.plane = plane;
+        this.version = plane.getVersion();
+        this.points = dependencies;
+        this.lastEntries = entries;
+        return this.result;
+    }
+
+    @Override
+    public List<Point> getPointDependencies(Plane<T> plane) {
+        return this.condition.getPointDependencies(plane);
+    }
+
+    @Override
+    public List<Log<?, ?>> getLogDependencies() {
+        return this.condition.getLogDependencies();
+    }
+
+    @Override
+    public ConditionalView toView() {
+        return this.condition.toView();
+    }
+
+    @Override
+    public String toString() {
+        return this.condition.toString();
+    }
+
+    // PRIVATE METHODS
+
+    private boolean isUnchanged(Plane<T> plane, List<Point> dependencies, List<Object> entries) {
+        if (this.plane != plane || !dependencies.equals(this.points) || entries.size() != this.lastEntries.size()) {
+            return false;
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            // Entries are compared by identity, as a new entry is pushed for every action
+            if (entries.get(i) != this.lastEntries.get(i)) {
+                return false;
+            }
+        }
+        for (Point p : dependencies) {
+            if (plane.getVersion(p) > this.version) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Object> getLastEntries(List<Log<?, ?>> logs) {
+        List<Object> entries = new ArrayList<>(logs.size());
+        for (Log<?, ?> log : logs) {
+            entries.add(log.peek());
+        }
+        return entries;
+    }
+}
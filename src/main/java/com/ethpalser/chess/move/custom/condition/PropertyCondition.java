@@ -1,6 +1,8 @@
 package com.ethpalser.chess.move.custom.condition;
 
+import com.ethpalser.chess.log.Log;
 import com.ethpalser.chess.space.Plane;
+import com.ethpalser.chess.space.Point;
 import com.ethpalser.chess.space.Positional;
 import com.ethpalser.chess.space.custom.reference.Reference;
 import com.ethpalser.chess.view.ConditionalView;
@@ -52,6 +54,22 @@ public class PropertyCondition<T extends Positional> implements Conditional<T> {
         return refExists;
     }
 
+    @Override
+    public List<Point> getPointDependencies(Plane<T> plane) {
+        if (this.reference == null) {
+            return List.of();
+        }
+        return this.reference.getPointDependencies(plane);
+    }
+
+    @Override
+    public List<Log<?, ?>> getLogDependencies() {
+        if (this.reference == null || this.reference.getLogDependency() == null) {
+            return List.of();
+        }
+        return List.of(this.reference.getLogDependency());
+    }
+
     private boolean isExpectedState(Object objProperty) {
         switch (this.comparator) {
             case FALSE -> {
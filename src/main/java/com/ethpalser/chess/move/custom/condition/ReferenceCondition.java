@@ -1,9 +1,12 @@
 package com.ethpalser.chess.move.custom.condition;
 
+import com.ethpalser.chess.log.Log;
 import com.ethpalser.chess.space.Plane;
+import com.ethpalser.chess.space.Point;
 import com.ethpalser.chess.space.Positional;
 import com.ethpalser.chess.space.custom.reference.Reference;
 import com.ethpalser.chess.view.ConditionalView;
+import java.util.ArrayList;
 import java.util.List;
 
 public class ReferenceCondition<T extends Positional> implements Conditional<T> {
@@ -66,6 +69,30 @@ public class ReferenceCondition<T extends Positional> implements Conditional<T>
         }
     }
 
+    @Override
+    public List<Point> getPointDependencies(Plane<T> plane) {
+        List<Point> points = new ArrayList<>();
+        for (Reference<T> ref : this.getReferencesRead()) {
+            List<Point> refPoints = ref.getPointDependencies(plane);
+            if (refPoints == null) {
+                return null;
+            }
+            points.addAll(refPoints);
+        }
+        return points;
+    }
+
+    @Override
+    public List<Log<?, ?>> getLogDependencies() {
+        List<Log<?, ?>> logs = new ArrayList<>();
+        for (Reference<T> ref : this.getReferencesRead()) {
+            if (ref.getLogDependency() != null) {
+                logs.add(ref.getLogDependency());
+            }
+        }
+        return logs;
+    }
+
     @Override
     public String toString() {
         return "ReferenceCondition{" +
@@ -79,4 +106,15 @@ public class ReferenceCondition<T extends Positional> implements Conditional<T>
     public ConditionalView toView() {
         return new ConditionalView(ConditionalType.PIECE, this.target, null, this.comparator, this.expected);
     }
+
+    private List<Reference<T>> getReferencesRead() {
+        List<Reference<T>> refs = new ArrayList<>(2);
+        if (this.target != null) {
+            refs.add(this.target);
+        }
+        if (this.expected != null) {
+            refs.add(this.expected);
+        }
+        return refs;
+    }
 }
@@ -1,6 +1,8 @@
 package com.ethpalser.chess.move.map;
 
+import com.ethpalser.chess.board.Board;
 import com.ethpalser.chess.log.Log;
+import com.ethpalser.chess.log.LogEntry;
 import com.ethpalser.chess.move.MoveSet;
 import com.ethpalser.chess.piece.Colour;
 import com.ethpalser.chess.piece.Piece;
@@ -9,6 +11,8 @@ import com.ethpalser.chess.space.Plane;
 import com.ethpalser.chess.space.Point;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
@@ -17,14 +21,46 @@ public class MoveMap {
     private final Map<Point, Set<Piece>> map;
     private final int length;
     private final int width;
+    // Maintained maps follow the board as it changes, using the moves each piece had when last updated
+    private final Colour colour;
+    private final Board board;
+    private final Log<Point, Piece> log;
+    private final ThreatMap threatMap;
+    private final Map<Piece, MoveSet> movesByPiece;
+    private long version;
+    private LogEntry<Point, Piece> lastEntry;
 
     public MoveMap(Colour colour, Plane<Piece> board, Log<Point, Piece> log, ThreatMap threatMap) {
         this.map = this.setup(colour, board, log, threatMap);
         this.length = board.length();
         this.width = board.width();
+        this.colour = colour;
+        this.board = null;
+        this.log = log;
+        this.threatMap = threatMap;
+        this.movesByPiece = null;
+    }
+
+    /**
+     * Creates a map that is maintained as the board changes. When it is read after a change, only the pieces
+     * whose moves the board found again (see {@link Board#getMoves(Piece, Log, ThreatMap)}) are updated, and
+     * pieces that left the board are removed.
+     */
+    public MoveMap(Colour colour, Board board, Log<Point, Piece> log, ThreatMap threatMap) {
+        this.map = new HashMap<>();
+        this.length = board.getPieces().length();
+        this.width = board.getPieces().width();
+        this.colour = colour;
+        this.board = board;
+        this.log = log;
+        this.threatMap = threatMap;
+        this.movesByPiece = new IdentityHashMap<>();
+        this.version = -1;
+        this.update();
     }
 
     public Set<Point> getPoints() {
+        this.update();
         return this.map.keySet();
     }
 
@@ -32,6 +68,7 @@ public class MoveMap {
         if (point == null) {
             return Set.of();
         }
+        this.update();
         Set<Piece> piecesThreateningPoint = this.map.get(point);
         if (piecesThreateningPoint == null) {
             return Set.of();
@@ -56,6 +93,7 @@ public class MoveMap {
 
     @Override
     public String toString() {
+        this.update();
         StringBuilder sb = new StringBuilder();
         for (int y = this.length - 1; y >= 0; y--) {
             for (int x = 0; x <= this.width - 1; x++) {
@@ -73,6 +111,59 @@ public class MoveMap {
 
     // PRIVATE METHODS
 
+    private void update() {
+        if (this.board == null) {
+            return;
+        }
+        Plane<Piece> plane = this.board.getPieces();
+        LogEntry<Point, Piece> entry = this.log == null || this.log.isEmpty() ? null : this.log.peek();
+        if (plane.getVersion() == this.version && entry == this.lastEntry) {
+            return;
+        }
+        Iterator<Map.Entry<Piece, MoveSet>> iterator = this.movesByPiece.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Piece, MoveSet> pieceMoves = iterator.next();
+            Piece piece = pieceMoves.getKey();
+            if (plane.get(piece.getPoint()) != piece) {
+                this.removeMoves(piece, pieceMoves.getValue());
+                iterator.remove();
+            }
+        }
+        for (Piece piece : plane) {
+            if (piece != null && Pieces.isAllied(this.colour, piece)) {
+                MoveSet moves = this.board.getMoves(piece, this.log, this.threatMap);
+                MoveSet previous = this.movesByPiece.put(piece, moves);
+                // The board returns the same move set while nothing it depends on has changed
+                if (previous != moves) {
+                    if (previous != null) {
+                        this.removeMoves(piece, previous);
+                    }
+                    this.addMoves(piece, moves);
+                }
+            }
+        }
+        this.version = plane.getVersion();
+        this.lastEntry = entry;
+    }
+
+    private void addMoves(Piece piece, MoveSet moveSet) {
+        for (Point point : moveSet.getPoints()) {
+            this.map.computeIfAbsent(point, k -> new HashSet<>()).add(piece);
+        }
+    }
+
+    private void removeMoves(Piece piece, MoveSet moveSet) {
+        for (Point point : moveSet.getPoints()) {
+            Set<Piece> pieces = this.map.get(point);
+            if (pieces != null) {
+                pieces.remove(piece);
+                if (pieces.isEmpty()) {
+                    this.map.remove(point);
+                }
+            }
+        }
+    }
+
     private Map<Point, Set<Piece>> setup(Colour colour, Plane<Piece> board, Log<Point, Piece> log,
             ThreatMap threatMap) {
         Map<Point, Set<Piece>> moves = new HashMap<>();
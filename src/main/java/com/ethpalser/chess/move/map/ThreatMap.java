@@ -2,68 +2,317 @@ package com.ethpalser.chess.move.map;
 
 import com.ethpalser.chess.log.Log;
 import com.ethpalser.chess.move.MoveSet;
-import com.ethpalser.chess.move.Movement;
 import com.ethpalser.chess.piece.Colour;
 import com.ethpalser.chess.piece.Piece;
 import com.ethpalser.chess.piece.Pieces;
+import com.ethpalser.chess.piece.custom.CustomPiece;
 import com.ethpalser.chess.piece.custom.PieceType;
-import com.ethpalser.chess.space.Path;
 import com.ethpalser.chess.space.Plane;
 import com.ethpalser.chess.space.Point;
-import com.ethpalser.chess.util.Tuple;
+import java.util.AbstractSet;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 public class ThreatMap {
 
+    public static final int PAWN_WALL = 0;
+    public static final int PAWN_CENTER_CONTROL = 1;
+    public static final int DOUBLED_PAWNS = 2;
+    public static final int PAWN_STRUCTURE_TERMS = 3;
+
+    // Ids below this are kept in a bit mask per point, and any above it in a bit set per point
+    private static final int MASK_SIZE = Long.SIZE;
+    // Beyond this many changed points, finding the affected pieces costs about as much as finding all threats again
+    private static final int REBUILD_THRESHOLD = 12;
+
     private final Colour colour;
-    private final Map<Point, Set<Piece>> map;
     private final int length;
     private final int width;
+    // Number of attackers and a bit mask of the attackers' ids of each point, indexed by Point#toIndex. Custom
+    // boards can have more pieces of a colour than fit a mask, so the ids past it are kept in a bit set per point,
+    // offset by MASK_SIZE, which is only created once such an id is used.
+    private final int[] counts;
+    private final long[] attackers;
+    private BitSet[] moreAttackers;
+    // Pieces by their id, and the id of each piece. Ids are reused once a piece's threats are removed.
+    private Piece[] pieces;
+    private final Map<Piece, Integer> ids;
+    // Points each attacker threatens by its id, so a piece's threats are cleared without visiting every point
+    private BitSet[] attacked;
+    // Sum of the points threatened by each piece, so a point threatened by two pieces is counted twice
+    private int totalThreats;
+    // Changes not yet applied, which are applied when the threats are next read
+    private final BitSet dirty;
+    private final Set<Piece> removed;
+    private Plane<Piece> board;
+    private Log<Point, Piece> log;
+    private boolean isApplying;
+    private int changesApplied;
 
     public ThreatMap(Colour colour, Plane<Piece> board, Log<Point, Piece> log) {
         this.colour = colour;
-        this.map = this.setup(colour, board, log);
         this.length = board.length();
         this.width = board.width();
+        this.counts = new int[(board.getMaxY() + 1) * (Point.MAX_WIDTH + 1)];
+        this.attackers = new long[this.counts.length];
+        this.pieces = new Piece[MASK_SIZE];
+        this.ids = new IdentityHashMap<>();
+        this.attacked = new BitSet[MASK_SIZE];
+        this.dirty = new BitSet(this.counts.length);
+        this.removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.board = board;
+        this.log = log;
+        this.setup(colour, board, log);
     }
 
     public boolean hasNoThreats(Point point) {
-        return this.getPieces(point).isEmpty();
+        if (point == null) {
+            return true;
+        }
+        return this.hasNoThreats(point.getX(), point.getY());
+    }
+
+    public boolean hasNoThreats(int x, int y) {
+        this.applyChanges();
+        int index = toIndex(x, y, this.counts.length);
+        return index < 0 || this.counts[index] == 0;
     }
 
     public Colour getColour() {
         return this.colour;
     }
 
+    /**
+     * @return number of times changes were applied, as each read after a change applies every change before it
+     */
+    public int getChangesApplied() {
+        return this.changesApplied;
+    }
+
+    /**
+     * Counts the threats of every piece of this map's colour, which measures the colour's mobility. The count is
+     * kept as threats change, so it does not look at the board or any piece's moves.
+     *
+     * @return number of points threatened by each piece, summed over the pieces
+     */
+    public int getThreatCount() {
+        this.applyChanges();
+        return this.totalThreats;
+    }
+
+    /**
+     * @param piece {@link Piece} of this map's colour
+     * @return number of points the piece threatens, or 0 if it does not threaten any
+     */
+    public int getThreatCount(Piece piece) {
+        this.applyChanges();
+        Integer id = this.ids.get(piece);
+        return id == null ? 0 : this.attacked[id].cardinality();
+    }
+
+    /**
+     * @param x x-coordinate of the point
+     * @param y y-coordinate of the point
+     * @return number of pieces threatening the point
+     */
+    public int getThreatCount(int x, int y) {
+        this.applyChanges();
+        int index = toIndex(x, y, this.counts.length);
+        return index < 0 ? 0 : this.counts[index];
+    }
+
+    /**
+     * Finds the pieces threatening the given point. The pieces are copied out of this map, as their ids are reused by
+     * other pieces, so the set does not change with later changes to this map.
+     *
+     * @param point {@link Point} to find threats for
+     * @return unmodifiable Set of {@link Piece}
+     */
     public Set<Piece> getPieces(Point point) {
         if (point == null) {
             return Set.of();
         }
-        Set<Piece> piecesThreateningPoint = this.map.get(point);
-        if (piecesThreateningPoint == null) {
+        this.applyChanges();
+        int index = toIndex(point.getX(), point.getY(), this.counts.length);
+        if (index < 0 || this.counts[index] == 0) {
             return Set.of();
         }
-        return piecesThreateningPoint;
+        return Collections.unmodifiableSet(new LinkedHashSet<>(this.getAttackers(index)));
+    }
+
+    /**
+     * Set of the pieces of an attacker bit mask, which are found by their id as the set is iterated.
+     */
+    private class AttackerSet extends AbstractSet<Piece> {
+        private final long mask;
+        // Ids from MASK_SIZE on, offset by it, or null if there are none
+        private final BitSet more;
+
+        private AttackerSet(long mask, BitSet more) {
+            this.mask = mask;
+            this.more = more == null || more.isEmpty() ? null : more;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer id = o instanceof Piece ? ThreatMap.this.ids.get(o) : null;
+            if (id == null) {
+                return false;
+            } else if (id < MASK_SIZE) {
+                return (this.mask & (1L << id)) != 0;
+            }
+            return this.more != null && this.more.get(id - MASK_SIZE);
+        }
+
+        @Override
+        public Iterator<Piece> iterator() {
+            return new Iterator<>() {
+                private long remaining = AttackerSet.this.mask;
+                private int nextMore = AttackerSet.this.more == null ? -1 : AttackerSet.this.more.nextSetBit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return this.remaining != 0 || this.nextMore >= 0;
+                }
+
+                @Override
+                public Piece next() {
+                    if (this.remaining != 0) {
+                        int id = Long.numberOfTrailingZeros(this.remaining);
+                        this.remaining &= this.remaining - 1;
+                        return ThreatMap.this.pieces[id];
+                    } else if (this.nextMore >= 0) {
+                        int id = this.nextMore + MASK_SIZE;
+                        this.nextMore = AttackerSet.this.more.nextSetBit(this.nextMore + 1);
+                        return ThreatMap.this.pieces[id];
+                    }
+                    throw new NoSuchElementException();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return Long.bitCount(this.mask) + (this.more == null ? 0 : this.more.cardinality());
+        }
+    }
+
+    /**
+     * Removes all threats of the given piece, which is needed when a piece leaves the board (ex. it was captured),
+     * as refreshing threats only accounts for pieces that are on the board.
+     *
+     * @param piece {@link Piece} to remove threats for
+     */
+    public void removeThreats(Piece piece) {
+        if (piece != null && this.colour.equals(piece.getColour())) {
+            this.removed.add(piece);
+        }
     }
 
     private void clearMoves(Piece piece) {
-        for (Point p : this.map.keySet()) {
-            this.clearMoves(piece, p);
+        Integer id = this.ids.remove(piece);
+        if (id == null) {
+            return;
+        }
+        BitSet points = this.attacked[id];
+        for (int i = points.nextSetBit(0); i >= 0; i = points.nextSetBit(i + 1)) {
+            if (id < MASK_SIZE) {
+                this.attackers[i] &= ~(1L << id);
+            } else {
+                this.moreAttackers[i].clear(id - MASK_SIZE);
+            }
+            this.counts[i]--;
+            this.totalThreats--;
         }
+        points.clear();
+        this.pieces[id] = null;
     }
 
-    private void clearMoves(Piece piece, Point point) {
-        Set<Piece> set = this.map.get(point);
-        if (set != null) {
-            set.remove(piece);
+    private void addMove(Piece piece, Point point) {
+        int index = toIndex(point.getX(), point.getY(), this.counts.length);
+        if (index < 0) {
+            return;
+        }
+        int id = this.getOrAssignId(piece);
+        if (!this.attacked[id].get(index)) {
+            if (id < MASK_SIZE) {
+                this.attackers[index] |= 1L << id;
+            } else {
+                this.getMoreAttackers(index).set(id - MASK_SIZE);
+            }
+            this.counts[index]++;
+            this.totalThreats++;
+            this.attacked[id].set(index);
         }
     }
 
+    private int getOrAssignId(Piece piece) {
+        Integer id = this.ids.get(piece);
+        if (id != null) {
+            return id;
+        }
+        for (int i = 0; i < this.pieces.length; i++) {
+            if (this.pieces[i] == null) {
+                this.pieces[i] = piece;
+                this.ids.put(piece, i);
+                if (this.attacked[i] == null) {
+                    this.attacked[i] = new BitSet(this.counts.length);
+                }
+                return i;
+            }
+        }
+        // Every id is in use, so the ids are widened past the bit mask
+        int next = this.pieces.length;
+        this.pieces = Arrays.copyOf(this.pieces, next * 2);
+        this.attacked = Arrays.copyOf(this.attacked, next * 2);
+        this.pieces[next] = piece;
+        this.ids.put(piece, next);
+        this.attacked[next] = new BitSet(this.counts.length);
+        return next;
+    }
+
+    private BitSet getMoreAttackers(int index) {
+        if (this.moreAttackers == null) {
+            this.moreAttackers = new BitSet[this.counts.length];
+        }
+        if (this.moreAttackers[index] == null) {
+            this.moreAttackers[index] = new BitSet();
+        }
+        return this.moreAttackers[index];
+    }
+
+    private AttackerSet getAttackers(int index) {
+        // The set reads this map's ids, so it must be read before the map next changes
+        return new AttackerSet(this.attackers[index], this.moreAttackers == null ? null : this.moreAttackers[index]);
+    }
+
+    private static int toIndex(int x, int y, int size) {
+        if (x < 0 || y < 0 || x > Point.MAX_WIDTH) {
+            return -1;
+        }
+        int index = y * (Point.MAX_WIDTH + 1) + x;
+        return index < size ? index : -1;
+    }
+
+    /**
+     * Records that the given point changed, so the threats of pieces that could be affected by it are found again.
+     * This is deferred until the threats are next read, so many changes (ex. undoing several actions) only update
+     * the threats once.
+     *
+     * @param board {@link Plane} after the change
+     * @param log   {@link Log} after the change
+     * @param point {@link Point} that changed
+     */
     public void refreshThreats(Plane<Piece> board, Log<Point, Piece> log, Point point) {
         if (board == null || log == null || point == null) {
             String str = "one or more arguments are null" +
@@ -72,58 +321,30 @@ public class ThreatMap {
                     ", point: " + (point == null);
             throw new NullPointerException(str);
         }
-        Piece change = board.get(point);
-        List<Tuple<Piece, Path>> tupleList = new ArrayList<>();
-        // Remove the impacting piece temporarily
-        board.remove(point);
-        if (change != null && this.colour.equals(change.getColour())) {
-            this.clearMoves(change);
-        }
-
-        // Get all paths that are along this point
-        for (Piece piece : this.getPieces(point)) {
-            if (!piece.equals(change)) {
-                MoveSet moves = piece.getMoves(board, log, this, true, true);
-                Movement moveWithPoint = moves.getMove(point);
-                if (moveWithPoint != null) {
-                    tupleList.add(new Tuple<>(piece, moveWithPoint.getPath()));
-                }
-            }
-        }
-
-        // Clear these paths
-        for (Tuple<Piece, Path> tuple : tupleList) {
-            for (Point p : tuple.getSecond()) {
-                this.clearMoves(tuple.getFirst(), p);
-            }
-        }
-        // Add the piece back, so we can reapply threats with this piece present
-        if (change != null) {
-            board.put(point, change);
-        }
-
-        boolean changeIsPresent = board.get(point) != null;
-        for (Tuple<Piece, Path> tuple : tupleList) {
-            // The only change from before and after are the paths that contain the impacted point
-            boolean seenChange = false;
-            for (Point p : tuple.getSecond()) {
-                if (seenChange && changeIsPresent)
-                    break;
-                if (p.equals(point))
-                    seenChange = true;
-                this.map.computeIfAbsent(p, k -> new HashSet<>()).add(tuple.getFirst());
-            }
-        }
-        if (change != null && this.colour.equals(change.getColour())) {
-            MoveSet moves = change.getMoves(board, log, this, true, true);
-            for (Point p : moves.getPoints()) {
-                this.map.computeIfAbsent(p, k -> new HashSet<>()).add(change);
-            }
+        this.board = board;
+        this.log = log;
+        int index = toIndex(point.getX(), point.getY(), this.counts.length);
+        if (index >= 0) {
+            this.dirty.set(index);
         }
     }
 
     public Integer evaluate(Plane<Piece> board) {
         int direction = Colour.WHITE.equals(this.colour) ? 1 : -1;
+        int[] terms = this.getPawnStructure(board);
+        return direction * (terms[PAWN_WALL] + terms[PAWN_CENTER_CONTROL] - terms[DOUBLED_PAWNS]);
+    }
+
+    /**
+     * Counts the pawn structure terms of this map's colour, which are the pawns defended by other pawns, the pawn
+     * threats on the centre of the board and the pawns on a file with another pawn. These depend only on where the
+     * pawns are, so they are weighted by the caller.
+     *
+     * @param board {@link Plane} with the pawns
+     * @return counts indexed by {@link #PAWN_WALL}, {@link #PAWN_CENTER_CONTROL} and {@link #DOUBLED_PAWNS}
+     */
+    public int[] getPawnStructure(Plane<Piece> board) {
+        int direction = Colour.WHITE.equals(this.colour) ? 1 : -1;
 
         List<Piece> pawns = new ArrayList<>();
         List<Point> pawnThreats = new ArrayList<>();
@@ -143,18 +364,21 @@ public class ThreatMap {
             }
         }
 
-        return direction * (this.calculatePawnWall(pawnThreats, pawns)
-                + this.calculatePawnCenterControl(pawnThreats, board.width() / 2, board.length() / 2)
-                + this.calculateDoubleFilePawns(pawns));
+        int[] terms = new int[PAWN_STRUCTURE_TERMS];
+        terms[PAWN_WALL] = this.calculatePawnWall(pawnThreats, pawns);
+        terms[PAWN_CENTER_CONTROL] = this.calculatePawnCenterControl(pawnThreats, board.width() / 2,
+                board.length() / 2);
+        terms[DOUBLED_PAWNS] = -this.calculateDoubleFilePawns(pawns);
+        return terms;
     }
 
     @Override
     public String toString() {
+        this.applyChanges();
         StringBuilder sb = new StringBuilder();
         for (int y = this.length - 1; y >= 0; y--) {
             for (int x = 0; x <= this.width - 1; x++) {
-                boolean hasThreat = map.get(new Point(x, y)) != null && !map.get(new Point(x, y)).isEmpty();
-                if (!hasThreat) {
+                if (this.hasNoThreats(x, y)) {
                     sb.append("|   ");
                 } else {
                     sb.append("| x ");
@@ -167,17 +391,90 @@ public class ThreatMap {
 
     // PRIVATE METHODS
 
-    private Map<Point, Set<Piece>> setup(Colour colour, Plane<Piece> board, Log<Point, Piece> log) {
-        Map<Point, Set<Piece>> piecesThreateningPoint = new HashMap<>();
+    /**
+     * Applies the changes recorded since the threats were last read. The threats that can change are those of
+     * pieces that threatened a changed point, as their paths may now be blocked or continue past it, and those of
+     * pieces that are now on a changed point or left the board. Custom pieces with conditions can depend on any
+     * point, so they are always found again.
+     */
+    private void applyChanges() {
+        if (this.isApplying || (this.dirty.isEmpty() && this.removed.isEmpty())) {
+            return;
+        }
+        this.isApplying = true;
+        this.changesApplied++;
+        for (Piece piece : this.removed) {
+            this.clearMoves(piece);
+        }
+        this.removed.clear();
+
+        if (this.dirty.cardinality() > REBUILD_THRESHOLD) {
+            this.rebuild();
+        } else {
+            Set<Piece> affected = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int i = this.dirty.nextSetBit(0); i >= 0; i = this.dirty.nextSetBit(i + 1)) {
+                affected.addAll(this.getAttackers(i));
+                Piece atPoint = this.board.get(Point.fromIndex(i));
+                if (atPoint != null && this.colour.equals(atPoint.getColour())) {
+                    affected.add(atPoint);
+                }
+            }
+            for (Piece piece : this.pieces) {
+                if (piece != null && (this.board.get(piece.getPoint()) != piece || isConditional(piece))) {
+                    affected.add(piece);
+                }
+            }
+            for (Piece piece : affected) {
+                this.clearMoves(piece);
+                if (this.board.get(piece.getPoint()) == piece) {
+                    this.addMoves(piece);
+                }
+            }
+        }
+        this.dirty.clear();
+        this.isApplying = false;
+    }
+
+    private void rebuild() {
+        Arrays.fill(this.counts, 0);
+        Arrays.fill(this.attackers, 0);
+        if (this.moreAttackers != null) {
+            for (BitSet more : this.moreAttackers) {
+                if (more != null) {
+                    more.clear();
+                }
+            }
+        }
+        this.totalThreats = 0;
+        for (int i = 0; i < this.pieces.length; i++) {
+            this.pieces[i] = null;
+            if (this.attacked[i] != null) {
+                this.attacked[i].clear();
+            }
+        }
+        this.ids.clear();
+        this.setup(this.colour, this.board, this.log);
+    }
+
+    private void addMoves(Piece piece) {
+        MoveSet moveSet = piece.getMoves(this.board, this.log, null, true, true);
+        for (Point point : moveSet.getPoints()) {
+            this.addMove(piece, point);
+        }
+    }
+
+    private static boolean isConditional(Piece piece) {
+        return piece instanceof CustomPiece && ((CustomPiece) piece).hasConditionalMoves();
+    }
+
+    private void setup(Colour colour, Plane<Piece> board, Log<Point, Piece> log) {
+        this.board = board;
+        this.log = log;
         for (Piece piece : board) {
             if (piece != null && Pieces.isAllied(colour, piece)) {
-                MoveSet moveSet = piece.getMoves(board, log, null, true, true);
-                for (Point point : moveSet.getPoints()) {
-                    piecesThreateningPoint.computeIfAbsent(point, k -> new HashSet<>()).add(piece);
-                }
+                this.addMoves(piece);
             }
         }
-        return piecesThreateningPoint;
     }
 
     private int calculatePawnWall(List<Point> pawnThreats, List<Piece> pawns) {
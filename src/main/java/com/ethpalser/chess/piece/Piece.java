@@ -35,21 +35,21 @@ public interface Piece extends Positional {
         if (board == null || destination == null) {
             return false;
         }
-        return this.getMoves(board).toSet().stream().anyMatch(m -> m.getPath().toSet().contains(destination));
+        return this.getMoves(board).contains(destination);
     }
 
     default boolean canMove(Plane<Piece> board, Log<Point, Piece> log, Point destination) {
         if (board == null || destination == null) {
             return false;
         }
-        return this.getMoves(board, log).toSet().stream().anyMatch(m -> m.getPath().toSet().contains(destination));
+        return this.getMoves(board, log).contains(destination);
     }
 
     default boolean canMove(Plane<Piece> board, Log<Point, Piece> log, ThreatMap threats, Point destination) {
         if (board == null || destination == null) {
             return false;
         }
-        return this.getMoves(board, log, threats).toSet().stream().anyMatch(m -> m.getPath().toSet().contains(destination));
+        return this.getMoves(board, log, threats).contains(destination);
     }
 
     boolean getHasMoved();
@@ -23,6 +23,8 @@ public class CustomPiece implements Piece {
     private final List<CustomMove> moveSpecifications;
     private Point position;
     private boolean hasMoved;
+    // Material value found from the move specifications, for pieces without a value in the evaluation parameters
+    private int value;
 
     public CustomPiece(PieceType pieceType, Colour colour, Point vector) {
         this(pieceType, colour, vector, (CustomMove) null);
@@ -55,6 +57,18 @@ public class CustomPiece implements Piece {
         }
     }
 
+    public PieceType getType() {
+        return this.type;
+    }
+
+    public int getValue() {
+        return this.value;
+    }
+
+    public void setValue(int value) {
+        this.value = value;
+    }
+
     @Override
     public Colour getColour() {
         return this.colour;
@@ -94,6 +108,15 @@ public class CustomPiece implements Piece {
         this.moveSpecifications.add(move);
     }
 
+    public boolean hasConditionalMoves() {
+        for (CustomMove spec : this.moveSpecifications) {
+            if (spec != null && spec.isConditional()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean getHasMoved() {
         return hasMoved;
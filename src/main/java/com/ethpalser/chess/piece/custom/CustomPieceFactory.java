@@ -1,5 +1,6 @@
 package com.ethpalser.chess.piece.custom;
 
+import com.ethpalser.chess.log.ChessLog;
 import com.ethpalser.chess.log.ChessLogEntry;
 import com.ethpalser.chess.log.Log;
 import com.ethpalser.chess.log.LogEntry;
@@ -32,10 +33,12 @@ public class CustomPieceFactory {
 
     private final Plane<Piece> plane;
     private final Log<Point, Piece> log;
+    private final CustomPieceValues values;
 
     public CustomPieceFactory(Plane<Piece> plane, Log<Point, Piece> log) {
         this.plane = plane;
         this.log = log;
+        this.values = new CustomPieceValues();
     }
 
     public CustomPiece build(String string) {
@@ -63,15 +66,56 @@ public class CustomPieceFactory {
         };
     }
 
+    /**
+     * Builds a custom piece from the specifications of its moves. The first time a code is built, its value is
+     * found from the specifications and registered in this factory's {@link CustomPieceValues}, and each piece
+     * with the code is given that value.
+     */
     public CustomPiece build(String code, Colour colour, Point point, boolean hasMoved, List<MoveView> moveSpecViews) {
+        CustomPiece piece = this.create(this.plane, this.log, code, colour, point, hasMoved, moveSpecViews);
+        piece.setValue(this.values.computeIfAbsent(code, c -> this.valueOf(c, moveSpecViews)));
+        return piece;
+    }
+
+    public CustomPieceValues getValues() {
+        return this.values;
+    }
+
+    // PRIVATE METHODS
+
+    private CustomPiece create(Plane<Piece> plane, Log<Point, Piece> log, String code, Colour colour, Point point,
+            boolean hasMoved, List<MoveView> moveSpecViews) {
         CustomPiece piece = new CustomPiece(code, colour, point, hasMoved);
         for (MoveView spec : moveSpecViews) {
-            piece.addMoveSpec(new CustomMove(this.plane, this.log, spec));
+            piece.addMoveSpec(new CustomMove(plane, log, spec));
         }
         return piece;
     }
 
-    // PRIVATE METHODS
+    /**
+     * Finds the value of a custom piece from its average number of moves over every point of an empty board of this
+     * factory's size, where it has already moved so moves only allowed once do not count. The value is in
+     * centipawns, like the material of the evaluation parameters.
+     */
+    private int valueOf(String code, List<MoveView> moveSpecViews) {
+        Plane<Piece> empty = new Plane<>(this.plane.getMaxX(), this.plane.getMaxY());
+        Log<Point, Piece> emptyLog = new ChessLog();
+        int moves = 0;
+        int points = 0;
+        for (int x = empty.getMinX(); x <= empty.getMaxX(); x++) {
+            for (int y = empty.getMinY(); y <= empty.getMaxY(); y++) {
+                Point point = new Point(x, y);
+                CustomPiece blueprint = this.create(empty, emptyLog, code, Colour.WHITE, point, true, moveSpecViews);
+                empty.put(point, blueprint);
+                moves += blueprint.getMoves(empty, emptyLog).getPoints().size();
+                empty.remove(point);
+                points++;
+            }
+        }
+        double mobility = points == 0 ? 0 : (double) moves / points;
+        int base = (int) Math.ceil(mobility / 3.0);
+        return (base + base / 3) * 100;
+    }
 
     // CONDITIONS
 
@@ -241,7 +285,7 @@ public class CustomPieceFactory {
                     .isAttack(false)
                     .conditions(List.of(
                             this.lastMovedIsPieceTypeCondition(PieceType.PAWN),
-                            this.lastMovedIsNearbyPieceCondition(null, 1, 0),
+                            this.lastMovedIsNearbyPieceCondition(pawn, 1, 0),
                             this.lastMovedTravelledDistanceCondition(2)
                     ))
                     .followUp(followUpRight)
@@ -259,7 +303,7 @@ public class CustomPieceFactory {
                     .isAttack(false)
                     .conditions(List.of(
                             this.lastMovedIsPieceTypeCondition(PieceType.PAWN),
-                            this.lastMovedIsNearbyPieceCondition(null, -1, 0),
+                            this.lastMovedIsNearbyPieceCondition(pawn, -1, 0),
                             this.lastMovedTravelledDistanceCondition(2)
                     ))
                     .followUp(followUpLeft)
@@ -0,0 +1,47 @@
+package com.ethpalser.chess.piece.custom;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * CustomPieceValues is the registry of the material value of each custom piece code built by a
+ * {@link CustomPieceFactory}. A value is found once from the piece's specification when the first piece with the code
+ * is built, so evaluating a custom piece is a lookup that does not change with the position it is in. Each factory
+ * has its own registry, so variants that use the same code for different pieces or board sizes do not share values.
+ */
+public class CustomPieceValues {
+
+    private final Map<String, Integer> values;
+
+    public CustomPieceValues() {
+        this.values = new HashMap<>();
+    }
+
+    /**
+     * @param code code of a custom piece
+     * @return the value of the code, or 0 if no piece with the code was built from a specification
+     */
+    public int getValue(String code) {
+        if (code == null) {
+            return 0;
+        }
+        return this.values.getOrDefault(code, 0);
+    }
+
+    public boolean contains(String code) {
+        return code != null && this.values.containsKey(code);
+    }
+
+    /**
+     * Registers the value of a code unless it already has one, in which case the existing value is kept.
+     *
+     * @param code          code of a custom piece
+     * @param valueFunction finds the value of the code if it does not have one
+     * @return the value of the code
+     */
+    public int computeIfAbsent(String code, ToIntFunction<String> valueFunction) {
+        return this.values.computeIfAbsent(code, valueFunction::applyAsInt);
+    }
+
+}
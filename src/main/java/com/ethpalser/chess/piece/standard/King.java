@@ -71,6 +71,19 @@ public class King implements Piece {
     @Override
     public MoveSet getMoves(Plane<Piece> board, Log<Point, Piece> log, ThreatMap opponentThreats,
             boolean onlyAttacks, boolean includeDefends) {
+        if (onlyAttacks) {
+            // A king threatens every point around it, whether or not it could move there safely
+            return new MoveSet(
+                    Point.validOrNull(board, this.point, this.colour, -1, 0, includeDefends),
+                    Point.validOrNull(board, this.point, this.colour, -1, 1, includeDefends),
+                    Point.validOrNull(board, this.point, this.colour, 0, 1, includeDefends),
+                    Point.validOrNull(board, this.point, this.colour, 1, 1, includeDefends),
+                    Point.validOrNull(board, this.point, this.colour, 1, 0, includeDefends),
+                    Point.validOrNull(board, this.point, this.colour, 1, -1, includeDefends),
+                    Point.validOrNull(board, this.point, this.colour, 0, -1, includeDefends),
+                    Point.validOrNull(board, this.point, this.colour, -1, -1, includeDefends)
+            );
+        }
         MoveSet moveSet = new MoveSet(
                 this.generateSafePointOrNull(board, opponentThreats, -1, 0, includeDefends), // left
                 this.generateSafePointOrNull(board, opponentThreats, -1, 1, includeDefends), // top left
@@ -92,6 +105,7 @@ public class King implements Piece {
             if (queenSideRook != null && !queenSideRook.getHasMoved()
                     && isEmptyAndSafe(board, opponentThreats, this.point.getX() - 1, this.point.getY())
                     && isEmptyAndSafe(board, opponentThreats, this.point.getX() - 2, this.point.getY())
+                    && isEmptyBetween(board, board.getMinX(), this.point.getX(), this.point.getY())
             ) {
                 LogEntry<Point, Piece> queenSideRookMove = new ChessLogEntry(
                         new Point(0, startRank),
@@ -109,6 +123,7 @@ public class King implements Piece {
             if (kingSideRook != null && !kingSideRook.getHasMoved()
                     && isEmptyAndSafe(board, opponentThreats, this.point.getX() + 1, this.point.getY())
                     && isEmptyAndSafe(board, opponentThreats, this.point.getX() + 2, this.point.getY())
+                    && isEmptyBetween(board, this.point.getX(), board.getMaxX(), this.point.getY())
             ) {
                 LogEntry<Point, Piece> kingSideRookMove = new ChessLogEntry(
                         new Point(board.getMaxX(), startRank),
@@ -151,11 +166,21 @@ public class King implements Piece {
         return board.get(p) == null && threatMap != null && threatMap.hasNoThreats(p);
     }
 
+    private boolean isEmptyBetween(Plane<Piece> board, int fromX, int toX, int y) {
+        // The rook passes over every point between it and the king, which the king may not (ex. b1)
+        for (int x = fromX + 1; x < toX; x++) {
+            if (board.get(new Point(x, y)) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private Point generateSafePointOrNull(Plane<Piece> board, ThreatMap threatMap, int xOffset, int yOffset,
             boolean includeDefends) {
         Point p = new Point(this.point.getX() + xOffset, this.point.getY() + yOffset);
         if (threatMap != null && threatMap.hasNoThreats(p)) {
-            return Point.validOrNull(board, this.point, this.colour, -1, 0, includeDefends);
+            return Point.validOrNull(board, this.point, this.colour, xOffset, yOffset, includeDefends);
         }
         return null;
     }
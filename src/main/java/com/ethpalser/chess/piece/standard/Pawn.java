@@ -83,10 +83,12 @@ public class Pawn implements Piece {
 
         // pawns can move forward two if it is their first move
         if (!this.hasMoved) {
-            moveSet.addMove(new Move(new Path(
-                    Point.notCaptureOrNull(board, this.point, 0, yOffset),
-                    Point.notCaptureOrNull(board, this.point, 0, yOffset * 2)
-            )));
+            Point oneForward = Point.notCaptureOrNull(board, this.point, 0, yOffset);
+            Point twoForward = Point.notCaptureOrNull(board, this.point, 0, yOffset * 2);
+            // both spaces must be open, as a pawn cannot jump over a piece
+            if (oneForward != null && twoForward != null) {
+                moveSet.addMove(new Move(new Path(oneForward, twoForward)));
+            }
         }
 
         // en passant (there must be at least one move)
@@ -97,20 +97,15 @@ public class Path implements Iterable<Point> {
             return false;
         if (!this.getClass().equals(obj.getClass()))
             return false;
-        return this.hashCode() == obj.hashCode();
+        // Paths are equal only with the same points in the same order, as paths with different points can have
+        // the same sum of point hashes (ex. [(3, 0), (2, 0)] and [(5, 0)])
+        Path other = (Path) obj;
+        return this.pointList.equals(other.pointList);
     }
 
     @Override
     public int hashCode() {
-        // This hash has little value. It is possible for path hashes to overlap
-        // ex. Path A: [(1, 0), (4, 0)] and Path B: [(2, 0), (3, 0)] are equal
-        int result = 0;
-        for (Point vector : this) {
-            if (vector != null) {
-                result += vector.hashCode();
-            }
-        }
-        return result;
+        return this.pointList.hashCode();
     }
 
     @Override
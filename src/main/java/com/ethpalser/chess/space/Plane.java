@@ -14,13 +14,13 @@ public class Plane<T extends Positional> implements Map<Point, T>, Iterable<T> {
     private final int maxY;
 
     private final Map<Point, T> space;
+    // Number of modifications, and the modification count at the last change of each point (see Point#toIndex)
+    private long version;
+    private final long[] pointVersions;
+    private long outOfBoundsVersion;
 
     public Plane() {
-        space = new HashMap<>();
-        this.minX = 0;
-        this.minY = 0;
-        this.maxX = 7;
-        this.maxY = 7;
+        this(7, 7);
     }
 
     public Plane(int maxX, int maxY) {
@@ -29,6 +29,7 @@ public class Plane<T extends Positional> implements Map<Point, T>, Iterable<T> {
         this.minY = 0;
         this.maxX = maxX;
         this.maxY = maxY;
+        this.pointVersions = new long[(maxY + 1) * (Point.MAX_WIDTH + 1)];
     }
 
     @Override
@@ -61,24 +62,60 @@ public class Plane<T extends Positional> implements Map<Point, T>, Iterable<T> {
         if (value == null) {
             throw new IllegalArgumentException("value added to plane cannot be null; occurred at point " + key);
         }
+        this.modified(key);
         return space.put(key, value);
     }
 
     @Override
     public T remove(Object key) {
+        if (key instanceof Point) {
+            this.modified((Point) key);
+        }
         return space.remove(key);
     }
 
     @Override
     public void putAll(Map<? extends Point, ? extends T> m) {
-        space.putAll(m);
+        for (Map.Entry<? extends Point, ? extends T> entry : m.entrySet()) {
+            this.put(entry.getKey(), entry.getValue());
+        }
     }
 
     @Override
     public void clear() {
+        for (Point point : space.keySet()) {
+            this.modified(point);
+        }
         space.clear();
     }
 
+    /**
+     * Counts the modifications made to this plane through put, remove and clear. Together with
+     * {@link #getVersion(Point)} this verifies if a point changed since a value was read from it.
+     *
+     * @return number of modifications
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Finds the modification count when the given point last changed, or zero if it has not changed.
+     *
+     * @param point {@link Point} on this plane
+     * @return modification count of the point's last change
+     */
+    public long getVersion(Point point) {
+        if (point == null) {
+            return 0;
+        }
+        int index = point.toIndex();
+        if (point.getX() < 0 || point.getX() > Point.MAX_WIDTH || index < 0 || index >= this.pointVersions.length) {
+            return this.outOfBoundsVersion;
+        }
+        return this.pointVersions[index];
+    }
+
     @Override
     public Set<Point> keySet() {
         return space.keySet();
@@ -168,4 +205,19 @@ public class Plane<T extends Positional> implements Map<Point, T>, Iterable<T> {
         }
         return sb.toString();
     }
+
+    // PRIVATE METHODS
+
+    private void modified(Point point) {
+        if (point == null) {
+            return;
+        }
+        this.version++;
+        int index = point.toIndex();
+        if (point.getX() < 0 || point.getX() > Point.MAX_WIDTH || index < 0 || index >= this.pointVersions.length) {
+            this.outOfBoundsVersion = this.version;
+        } else {
+            this.pointVersions[index] = this.version;
+        }
+    }
 }
@@ -82,6 +82,26 @@ public class Point implements Comparable<Point> {
         return this.y * (MAX_WIDTH + 1) + this.x;
     }
 
+    /**
+     * The index of this Point in a 1D array of points, which is the same as its hash code. This is used to index
+     * squares in arrays and bit sets.
+     *
+     * @return int index of this point
+     */
+    public int toIndex() {
+        return this.hashCode();
+    }
+
+    /**
+     * Creates the Point at the given index of a 1D array of points. This is the reverse of {@link #toIndex()}.
+     *
+     * @param index int index of a point
+     * @return {@link Point}
+     */
+    public static Point fromIndex(int index) {
+        return new Point(index % (MAX_WIDTH + 1), index / (MAX_WIDTH + 1));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -0,0 +1,125 @@
+package com.ethpalser.chess.space;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * VirtualPlane is a read-only view of a plane with some points replaced, where a replacement of null is an empty
+ * point. This is used to find what would change if a point were empty or occupied without writing to the plane, so
+ * the plane remains stable for anything else reading it. The replacements may be changed by whoever created the view,
+ * so its versions are the base plane's and do not count changes to the replacements.
+ */
+public class VirtualPlane<T extends Positional> extends Plane<T> {
+
+    private final Plane<T> base;
+    private final Map<Point, T> replaced;
+
+    public VirtualPlane(Plane<T> base, Point point, T value) {
+        this(base, new HashMap<>());
+        this.replaced.put(point, value);
+    }
+
+    public VirtualPlane(Plane<T> base, Map<Point, T> replaced) {
+        super(base.getMaxX(), base.getMaxY());
+        this.base = base;
+        this.replaced = replaced;
+    }
+
+    @Override
+    public T get(Object key) {
+        if (this.replaced.containsKey(key)) {
+            return this.replaced.get(key);
+        }
+        return this.base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.get(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return this.values().contains(value);
+    }
+
+    @Override
+    public int size() {
+        return this.toMap().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.toMap().isEmpty();
+    }
+
+    @Override
+    public T put(Point key, T value) {
+        throw new UnsupportedOperationException("a virtual plane cannot be modified");
+    }
+
+    @Override
+    public T remove(Object key) {
+        throw new UnsupportedOperationException("a virtual plane cannot be modified");
+    }
+
+    @Override
+    public void putAll(Map<? extends Point, ? extends T> m) {
+        throw new UnsupportedOperationException("a virtual plane cannot be modified");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("a virtual plane cannot be modified");
+    }
+
+    @Override
+    public Set<Point> keySet() {
+        return this.toMap().keySet();
+    }
+
+    @Override
+    public Collection<T> values() {
+        return this.toMap().values();
+    }
+
+    @Override
+    public Set<Entry<Point, T>> entrySet() {
+        return this.toMap().entrySet();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this.values().iterator();
+    }
+
+    @Override
+    public long getVersion() {
+        return this.base.getVersion();
+    }
+
+    @Override
+    public long getVersion(Point point) {
+        return this.base.getVersion(point);
+    }
+
+    // PRIVATE METHODS
+
+    private Map<Point, T> toMap() {
+        Map<Point, T> map = new HashMap<>(this.base.size() + this.replaced.size());
+        for (Entry<Point, T> entry : this.base.entrySet()) {
+            if (!this.replaced.containsKey(entry.getKey())) {
+                map.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Entry<Point, T> entry : this.replaced.entrySet()) {
+            if (entry.getValue() != null) {
+                map.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return map;
+    }
+}
@@ -29,6 +29,11 @@ public class AbsoluteReference<T extends Positional> implements Reference<T> {
         return List.of(ref);
     }
 
+    @Override
+    public List<Point> getPointDependencies(Plane<T> plane) {
+        return List.of(this.point);
+    }
+
     @Override
     public ReferenceView toView() {
         return new ReferenceView(Location.POINT, this.point, 0, 0);
@@ -3,6 +3,7 @@ package com.ethpalser.chess.space.custom.reference;
 import com.ethpalser.chess.log.Log;
 import com.ethpalser.chess.log.LogEntry;
 import com.ethpalser.chess.space.Plane;
+import com.ethpalser.chess.space.Point;
 import com.ethpalser.chess.space.Positional;
 import com.ethpalser.chess.space.custom.Location;
 import com.ethpalser.chess.view.ReferenceView;
@@ -37,6 +38,16 @@ public class LogReference<T extends Comparable<T>, U extends Positional> impleme
         return List.of();
     }
 
+    @Override
+    public List<Point> getPointDependencies(Plane<U> plane) {
+        return List.of();
+    }
+
+    @Override
+    public Log<?, ?> getLogDependency() {
+        return this.log;
+    }
+
     @Override
     public ReferenceView toView() {
         return new ReferenceView(Location.LAST_MOVED, null, 0, 0);
@@ -6,15 +6,16 @@ import com.ethpalser.chess.space.Point;
 import com.ethpalser.chess.space.Positional;
 import com.ethpalser.chess.space.custom.Location;
 import com.ethpalser.chess.view.ReferenceView;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 public class PathReference<T extends Positional> implements Reference<T> {
 
     private final Location location;
     private final Point start;
     private final Point end;
+    // Points of the path from start to end, found once as they do not change
+    private final List<Point> points;
 
     public PathReference(Location location) {
         this(location, null);
@@ -28,6 +29,11 @@ public class PathReference<T extends Positional> implements Reference<T> {
         this.location = location;
         this.start = start;
         this.end = end;
+        if (Location.PATH.equals(location) && start != null && end != null) {
+            this.points = List.copyOf(new Path(start, end).toSet());
+        } else {
+            this.points = start != null ? List.of(start) : List.of();
+        }
     }
 
     @Override
@@ -48,10 +54,14 @@ public class PathReference<T extends Positional> implements Reference<T> {
                 }
             }
             case PATH -> {
-                return new Path(this.start, this.end).toSet().stream()
-                        .map(plane::get)
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toList());
+                List<T> refs = new ArrayList<>(this.points.size());
+                for (Point p : this.points) {
+                    T ref = plane.get(p);
+                    if (ref != null) {
+                        refs.add(ref);
+                    }
+                }
+                return refs;
             }
             default -> {
                 System.err.println("Unsupported Location{" + location + "} for path reference");
@@ -61,6 +71,11 @@ public class PathReference<T extends Positional> implements Reference<T> {
         return List.of();
     }
 
+    @Override
+    public List<Point> getPointDependencies(Plane<T> plane) {
+        return this.points;
+    }
+
     @Override
     public ReferenceView toView() {
         return new ReferenceView(Location.PATH, this.start, this.end.getX() - this.start.getX(),
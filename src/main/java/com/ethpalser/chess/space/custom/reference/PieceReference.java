@@ -77,25 +77,31 @@ public class PieceReference implements Reference<Piece> {
 
     @Override
     public List<Piece> getReferences(Plane<Piece> plane) {
-        Piece ref = switch (this.direction) {
-            case AT -> plane.get(
-                    new Point(this.piece.getPoint().getX() + shiftX, this.piece.getPoint().getY() + shiftY)
-            );
-            case LEFT, RIGHT -> plane.get(
-                    new Point(this.piece.getPoint().getX() + shiftX, this.piece.getPoint().getY())
-            );
-            case BACK, FRONT -> plane.get(
-                    new Point(this.piece.getPoint().getX(), this.piece.getPoint().getY() + shiftY)
-            );
-        };
+        Piece ref = plane.get(this.getReferencedPoint());
         if (ref == null) {
             return List.of();
         }
         return List.of(ref);
     }
 
+    @Override
+    public List<Point> getPointDependencies(Plane<Piece> plane) {
+        // The point is relative to the piece, so it changes as the piece moves
+        return List.of(this.getReferencedPoint());
+    }
+
     @Override
     public ReferenceView toView() {
         return new ReferenceView(Location.PIECE, null, this.shiftX, this.shiftY);
     }
+
+    // PRIVATE METHODS
+
+    private Point getReferencedPoint() {
+        return switch (this.direction) {
+            case AT -> new Point(this.piece.getPoint().getX() + shiftX, this.piece.getPoint().getY() + shiftY);
+            case LEFT, RIGHT -> new Point(this.piece.getPoint().getX() + shiftX, this.piece.getPoint().getY());
+            case BACK, FRONT -> new Point(this.piece.getPoint().getX(), this.piece.getPoint().getY() + shiftY);
+        };
+    }
 }
@@ -1,6 +1,8 @@
 package com.ethpalser.chess.space.custom.reference;
 
+import com.ethpalser.chess.log.Log;
 import com.ethpalser.chess.space.Plane;
+import com.ethpalser.chess.space.Point;
 import com.ethpalser.chess.space.Positional;
 import com.ethpalser.chess.space.custom.Location;
 import com.ethpalser.chess.view.ReferenceView;
@@ -12,6 +14,26 @@ public interface Reference<T extends Positional> {
 
     List<T> getReferences(Plane<T> plane);
 
+    /**
+     * Finds the points of the plane this reference reads, so what was found from it can be reused while none of
+     * these points change.
+     *
+     * @param plane {@link Plane} the reference reads from
+     * @return List of {@link Point}, or null if it reads from anything other than the plane's points
+     */
+    default List<Point> getPointDependencies(Plane<T> plane) {
+        return null;
+    }
+
+    /**
+     * Finds the log whose last entry this reference reads.
+     *
+     * @return {@link Log}, or null if it does not read a log
+     */
+    default Log<?, ?> getLogDependency() {
+        return null;
+    }
+
     ReferenceView toView();
 
 }
@@ -0,0 +1,44 @@
+package com.ethpalser.chess.board;
+
+import com.ethpalser.chess.log.ChessLog;
+import com.ethpalser.chess.log.Log;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.space.Point;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class BoardSnapshotTest {
+
+    @Test
+    void testRestore_givenCaptureAndMove_thenSamePiecesPlacedBack() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe1*", "wRa1*", "bNa5", "bKe8*"));
+        Piece rook = board.getPiece(new Point('a', '1'));
+        Piece knight = board.getPiece(new Point('a', '5'));
+        BoardSnapshot snapshot = BoardSnapshot.of(board.getPieces());
+
+        board.addPiece(new Point('a', '5'), rook);
+        board.addPiece(new Point('a', '1'), null);
+        rook.setHasMoved(true);
+        assertEquals(List.of(knight), snapshot.getRemovedPieces(board.getPieces()));
+        List<Point> changed = snapshot.getChangedPoints(board.getPieces());
+        assertEquals(2, changed.size());
+        assertTrue(changed.contains(new Point('a', '1')));
+        assertTrue(changed.contains(new Point('a', '5')));
+
+        snapshot.restore(board);
+        assertSame(rook, board.getPiece(new Point('a', '1')));
+        assertSame(knight, board.getPiece(new Point('a', '5')));
+        assertEquals(new Point('a', '5'), knight.getPoint());
+        assertFalse(rook.getHasMoved());
+        assertEquals(4, board.getPieces().size());
+        assertTrue(snapshot.getChangedPoints(board.getPieces()).isEmpty());
+        assertNull(board.getPiece(new Point('b', '1')));
+    }
+
+}
@@ -38,5 +38,30 @@ public class BoardTestCases {
     // Move QD1->D7
     public static List<String> checkmateKingCannotMove = List.of("d1#wQ", "e1*#wK", "g7#bK", "a8#wR", "f6#bP", "g5#bP", "h6#bP", "h5#wP");
 
+    // endregion
+    // region Perft
+    // Perft position 3 (8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w), nodes: 14, 191, 2812, 43238
+    public static List<String> perftPosition3 = List.of("wKa5", "wPb5", "wRb4", "wPe2*", "wPg2*", "bPc7*",
+            "bPd6", "bRh5", "bPf4", "bKh4");
+    public static List<String> perftPosition3Custom = List.of("a5#wK", "b5#wP", "b4#wR", "e2*#wP", "g2*#wP",
+            "c7*#bP", "d6#bP", "h5#bR", "f4#bP", "h4#bK");
+
+    // Kiwipete (r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq), nodes: 48, 2039, 97862
+    public static List<String> perftKiwipete = List.of("wRa1*", "wKe1*", "wRh1*", "wPa2*", "wPb2*", "wPc2*",
+            "wBd2", "wBe2", "wPf2*", "wPg2*", "wPh2*", "wNc3", "wQf3", "bPh3", "bPb4", "wPe4", "wPd5", "wNe5",
+            "bBa6", "bNb6", "bPe6", "bNf6", "bPg6", "bPa7*", "bPc7*", "bPd7*", "bQe7", "bPf7*", "bBg7", "bRa8*",
+            "bKe8*", "bRh8*");
+    // Perft position 4 (r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq), nodes: 6, 264, 9467
+    public static List<String> perftPosition4 = List.of("wRa1", "wQd1", "wRf1", "wKg1", "wPa2*", "bPb2", "wPd2*",
+            "wPg2*", "wPh2*", "bQa3", "wNf3", "wBa4", "wBb4", "wPc4", "wPe4", "bNa5", "wPb5", "bBb6", "bNf6",
+            "bBg6", "wNh6", "wPa7", "bPb7*", "bPc7*", "bPd7*", "bPf7*", "bPg7*", "bPh7*", "bRa8*", "bKe8*",
+            "bRh8*");
+    // Perft position 5 (rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ), nodes: 44, 1486, 62379
+    public static List<String> perftPosition5 = List.of("wRa1*", "wNb1", "wBc1", "wQd1", "wKe1*", "wRh1*",
+            "wPa2*", "wPb2*", "wPc2*", "wNe2", "bNf2", "wPg2*", "wPh2*", "wBc4", "bPc6", "bPa7*", "bPb7*", "wPd7",
+            "bBe7", "bPf7*", "bPg7*", "bPh7*", "bRa8", "bNb8", "bBc8", "bQd8", "bKf8", "bRh8");
+    // Double check after Ne6-c7 (4k3/p7/4N3/7q/8/8/7P/4R2K w), nodes after it: 4, 92, 2069
+    public static List<String> perftDoubleCheck = List.of("wKh1", "wRe1", "wPh2*", "bQh5", "wNe6", "bPa7*", "bKe8");
+
     // endregion
 }
@@ -1,11 +1,15 @@
 package com.ethpalser.chess.board;
 
 import com.ethpalser.chess.log.ChessLog;
+import com.ethpalser.chess.log.Log;
+import com.ethpalser.chess.move.MoveSet;
 import com.ethpalser.chess.piece.Colour;
 import com.ethpalser.chess.piece.Piece;
 import com.ethpalser.chess.piece.custom.PieceType;
 import com.ethpalser.chess.space.Point;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import org.junit.jupiter.api.Test;
 
@@ -71,4 +75,30 @@ class ChessBoardTest {
         assertEquals(16, board.getPieces().size());
 
     }
+
+    @Test
+    void getMoves_unaffectedByMove_returnsSameMoveSet() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log);
+        Piece knight = board.getPiece(new Point('b', '1'));
+        MoveSet before = board.getMoves(knight, log, null);
+
+        log.push(board.movePiece(new Point('h', '2'), new Point('h', '3'), log, null));
+
+        assertSame(before, board.getMoves(knight, log, null));
+    }
+
+    @Test
+    void getMoves_pieceMovedIntoPath_returnsUpdatedMoveSet() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log);
+        Piece bishop = board.getPiece(new Point('f', '1'));
+        assertEquals(0, board.getMoves(bishop, log, null).size());
+
+        log.push(board.movePiece(new Point('e', '2'), new Point('e', '4'), log, null));
+
+        assertEquals(5, board.getMoves(bishop, log, null).size());
+        assertTrue(board.getMoves(bishop, log, null).contains(new Point('a', '6')));
+    }
+
 }
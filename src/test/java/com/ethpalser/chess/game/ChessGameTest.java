@@ -5,6 +5,7 @@ import com.ethpalser.chess.board.BoardTestCases;
 import com.ethpalser.chess.board.BoardType;
 import com.ethpalser.chess.board.ChessBoard;
 import com.ethpalser.chess.exception.IllegalActionException;
+import com.ethpalser.chess.game.evaluation.EvaluationParameters;
 import com.ethpalser.chess.log.ChessLog;
 import com.ethpalser.chess.log.ChessLogEntry;
 import com.ethpalser.chess.log.Log;
@@ -16,6 +17,12 @@ import com.ethpalser.chess.piece.Piece;
 import com.ethpalser.chess.space.Point;
 import com.ethpalser.chess.view.GameView;
 import com.google.gson.Gson;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
@@ -420,6 +427,54 @@ class ChessGameTest {
         assertTrue(value < 0);
     }
 
+    @Test
+    void testEvaluateState_givenPieceSquareTablesAndUndo_thenValueRestored() {
+        Board board = new ChessBoard(BoardType.STANDARD);
+        Log<Point, Piece> log = new ChessLog();
+        ChessGame game = new ChessGame(board, log);
+        int[] knightTable = new int[64];
+        knightTable[2 * 8 + 5] = 2; // f3
+        String table = Arrays.toString(knightTable);
+        EvaluationParameters parameters = EvaluationParameters.fromJson(
+                "{\"midgameTables\": {\"N\": " + table + "}, \"endgameTables\": {\"N\": " + table + "}}");
+        game.setEvaluationParameters(parameters);
+        int before = game.evaluateState();
+
+        game.updateGame(new Action(Colour.WHITE, new Point("g1"), new Point("f3")));
+        int after = game.evaluateState();
+        game.undoUpdate(1, false);
+
+        assertEquals(before + 2, after);
+        assertEquals(before, game.evaluateState());
+    }
+
+    @Test
+    void testEvaluateState_givenMobilityWeighted_thenMoreMobilePlayerFavoured() {
+        Board board = new ChessBoard(BoardType.STANDARD);
+        Log<Point, Piece> log = new ChessLog();
+        ChessGame game = new ChessGame(board, log);
+        game.setEvaluationParameters(EvaluationParameters.fromJson("{\"mobility\": [1, 1]}"));
+        assertEquals(0, game.evaluateState());
+
+        game.updateGame(new Action(Colour.WHITE, new Point("e2"), new Point("e4")));
+
+        ThreatMap whiteThreats = new ThreatMap(Colour.WHITE, board.getPieces(), log);
+        ThreatMap blackThreats = new ThreatMap(Colour.BLACK, board.getPieces(), log);
+        assertTrue(game.evaluateState() > 0);
+        assertEquals(whiteThreats.getThreatCount() - blackThreats.getThreatCount(), game.evaluateState());
+    }
+
+    @Test
+    void testEvaluateState_givenKingAttacksWeighted_thenAttackedPlayerPenalised() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe1", "bKe8", "bRd7", "bNg3"));
+        ChessGame game = new ChessGame(board, log);
+        game.setEvaluationParameters(EvaluationParameters.fromJson("{\"kingAttacks\": [-1, -1]}"));
+
+        // The rook attacks d1 and d2, and the knight attacks e2 and f1, next to White's king
+        assertEquals(-4, game.evaluateState());
+    }
+
     @Test
     void testBotMovement_givenStartingBoard_thenBoardChanges() {
         Board board = new ChessBoard(BoardType.CUSTOM);
@@ -858,18 +913,31 @@ class ChessGameTest {
     }
 
     @Test
-    void executeAction_onlyKings_gameIsStalemate() {
+    void executeAction_onlyKings_gameIsInsufficientMaterial() {
         Log<Point, Piece> log = new ChessLog();
         Board board = new ChessBoard(BoardType.CUSTOM, log, BoardTestCases.stalemateOnlyKings);
         ChessGame game = new ChessGame(board, log);
         // When
         Action action = new Action(Colour.WHITE, new Point('e', '1'), new Point('e', '2'));
         GameStatus status = game.updateGame(action);
-        // Then
-        assertEquals(GameStatus.STALEMATE, status);
+        // Then the other king can move, so it is a draw by material rather than a stalemate
+        assertEquals(GameStatus.INSUFFICIENT_MATERIAL, status);
         assertTrue(GameStatus.isCompletedGameStatus(status));
     }
 
+
+    @Test
+    void executeAction_onlyPieceIsPinned_gameIsStalemate() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKf7", "wBc1", "wPg6", "bKh8", "bNg7"));
+        ChessGame game = new ChessGame(board, log);
+        // When
+        Action action = new Action(Colour.WHITE, new Point('c', '1'), new Point('b', '2'));
+        GameStatus status = game.updateGame(action);
+        // Then the knight has moves, but none of them are legal
+        assertEquals(GameStatus.STALEMATE, status);
+    }
+
     // endregion
     // region Check in Game
     @Test
@@ -953,4 +1021,431 @@ class ChessGameTest {
     }
     // endregion
 
+    // region Legal Destinations
+    @Test
+    void testLegalDestinations_givenPosition3Tree_thenCountsMatchPerft() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, BoardTestCases.perftPosition3);
+        ChessGame game = new ChessGame(board, log);
+
+        assertLegalDestinationsMatchPerft(game, 3);
+    }
+
+    @Test
+    void testLegalDestinations_givenStartingTree_thenCountsMatchPerft() {
+        Board board = new ChessBoard(BoardType.CUSTOM);
+        Log<Point, Piece> log = new ChessLog();
+        ChessGame game = new ChessGame(board, log);
+
+        assertLegalDestinationsMatchPerft(game, 2);
+    }
+
+    @Test
+    void testLegalDestinations_givenQueenSideCastled_thenRookMovesFromItsNewPoint() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, BoardTestCases.perftKiwipete);
+        ChessGame game = new ChessGame(board, log);
+        game.updateGame(new Action(Colour.WHITE, new Point('e', '1'), new Point('c', '1')));
+        game.updateGame(new Action(Colour.BLACK, new Point('a', '6'), new Point('b', '7')));
+        // When
+        Map<Point, BitSet> destinations = game.legalDestinations();
+        // Then
+        assertFalse(destinations.containsKey(new Point('a', '1')));
+        assertTrue(destinations.get(new Point('d', '1')).get(new Point('e', '1').toIndex()));
+        for (Map.Entry<Point, BitSet> entry : destinations.entrySet()) {
+            assertEquals(entry.getKey(), game.getBoard().getPiece(entry.getKey()).getPoint());
+        }
+        assertLegalDestinationsMatchPerft(game, 2);
+    }
+
+    @Test
+    void testLegalDestinations_givenPinnedRook_thenOnlyMovesAlongPin() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKa1", "wRa3", "bRa8", "bKh8"));
+        ChessGame game = new ChessGame(board, log);
+        // When
+        BitSet rook = game.legalDestinations().get(new Point('a', '3'));
+        // Then
+        assertEquals(6, rook.cardinality());
+        assertTrue(rook.get(new Point('a', '2').toIndex()));
+        assertTrue(rook.get(new Point('a', '8').toIndex()));
+        assertFalse(rook.get(new Point('b', '3').toIndex()));
+    }
+
+    @Test
+    void testLegalDestinations_givenActionExecuted_thenRecomputedForNextPlayer() {
+        Board board = new ChessBoard(BoardType.STANDARD);
+        Log<Point, Piece> log = new ChessLog();
+        ChessGame game = new ChessGame(board, log);
+        Map<Point, BitSet> before = game.legalDestinations();
+        // When
+        game.updateGame(new Action(Colour.WHITE, new Point('e', '2'), new Point('e', '4')));
+        Map<Point, BitSet> after = game.legalDestinations();
+        // Then
+        assertSame(after, game.legalDestinations());
+        assertTrue(before.containsKey(new Point('e', '2')));
+        assertTrue(after.containsKey(new Point('e', '7')));
+        assertFalse(after.containsKey(new Point('e', '2')));
+    }
+    // endregion
+    // region Search Moves
+    @Test
+    void testMakeMove_givenCheck_thenOnlyCheckStatus() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKg1", "wRa1", "bPf7", "bPg7", "bPh7", "bKg8"));
+        ChessGame game = new ChessGame(board, log);
+
+        assertTrue(game.makeMove(new Action(Colour.WHITE, new Point('a', '1'), new Point('a', '8'))));
+
+        // It is checkmate, but search moves leave that for the search to find
+        assertEquals(GameStatus.BLACK_IN_CHECK, game.getStatus());
+        assertEquals(2, game.getTurn());
+        game.unmakeMove();
+        assertEquals(GameStatus.PENDING, game.getStatus());
+        assertEquals(1, game.getTurn());
+        assertNotNull(game.getBoard().getPiece(new Point('a', '1')));
+        assertEquals(GameStatus.WHITE_WIN,
+                game.updateGame(new Action(Colour.WHITE, new Point('a', '1'), new Point('a', '8'))));
+    }
+
+    @Test
+    void testMakeMove_givenKingLeftInCheck_thenFalseAndUnchanged() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe1", "wBe2", "bRe8", "bKa8"));
+        ChessGame game = new ChessGame(board, log);
+
+        assertFalse(game.makeMove(new Action(Colour.WHITE, new Point('e', '2'), new Point('d', '3'))));
+
+        assertEquals(1, game.getTurn());
+        assertTrue(log.isEmpty());
+        assertNotNull(game.getBoard().getPiece(new Point('e', '2')));
+    }
+    // endregion
+    // region Static Exchange Evaluation
+    @Test
+    void testSee_givenUndefendedPiece_thenGainsPieceValue() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKa1", "wRe1", "bNe5", "bKh8"));
+        ChessGame game = new ChessGame(board, log);
+
+        assertEquals(300, game.see(new Action(Colour.WHITE, new Point('e', '1'), new Point('e', '5'))));
+    }
+
+    @Test
+    void testSee_givenPawnDefendedByPawn_thenLosesRook() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKa1", "wRe1", "bPe5", "bPd6", "bKh8"));
+        ChessGame game = new ChessGame(board, log);
+
+        assertEquals(-400, game.see(new Action(Colour.WHITE, new Point('e', '1'), new Point('e', '5'))));
+    }
+
+    @Test
+    void testSee_givenRookBehindAttackingRook_thenXRayRecaptureWins() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log,
+                List.of("wKa1", "wRe1", "wRe2", "bNe5", "bRe8", "bKh8"));
+        ChessGame game = new ChessGame(board, log);
+
+        // Rook takes knight, rook takes rook and the rook behind, only attacking once the first has moved, retakes
+        assertEquals(300, game.see(new Action(Colour.WHITE, new Point('e', '2'), new Point('e', '5'))));
+    }
+
+    @Test
+    void testSee_givenKingCapturesDefendedPiece_thenNegative() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe4", "bPd5", "bPc6", "bKh8"));
+        ChessGame game = new ChessGame(board, log);
+
+        assertTrue(game.see(new Action(Colour.WHITE, new Point('e', '4'), new Point('d', '5'))) < 0);
+        assertEquals(0, game.see(new Action(Colour.WHITE, new Point('e', '4'), new Point('e', '5'))));
+    }
+
+    @Test
+    void testSee_givenCentipawnMaterial_thenKingStillOutweighsQueen() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe4", "bQd5", "bPc6", "bKh8"));
+        ChessGame game = new ChessGame(board, log);
+        game.setEvaluationParameters(EvaluationParameters.fromJson(
+                "{\"material\": {\"P\": [100, 100], \"Q\": [1025, 1025], \"K\": [0, 0]}}"));
+
+        // The queen is defended, so the king cannot capture it and it must not count as a gain
+        assertTrue(game.see(new Action(Colour.WHITE, new Point('e', '4'), new Point('d', '5'))) < 0);
+    }
+    // endregion
+    // region Draws
+    @Test
+    void executeAction_samePositionThreeTimes_gameIsThreefoldRepetition() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKa1", "wRc1", "bKh8"));
+        ChessGame game = new ChessGame(board, log);
+
+        GameStatus status = GameStatus.ONGOING;
+        for (int i = 0; i < 2; i++) {
+            game.updateGame(new Action(Colour.WHITE, new Point('a', '1'), new Point('b', '1')));
+            game.updateGame(new Action(Colour.BLACK, new Point('h', '8'), new Point('g', '8')));
+            game.updateGame(new Action(Colour.WHITE, new Point('b', '1'), new Point('a', '1')));
+            status = game.updateGame(new Action(Colour.BLACK, new Point('g', '8'), new Point('h', '8')));
+            assertTrue(game.isRepetition());
+        }
+
+        assertEquals(GameStatus.THREEFOLD_REPETITION, status);
+        assertTrue(GameStatus.isCompletedGameStatus(status));
+        assertTrue(GameStatus.isDrawStatus(status));
+        assertNotEquals(GameStatus.THREEFOLD_REPETITION, game.undoUpdate());
+    }
+
+    @Test
+    void executeAction_positionAfterEnPassantChanceRepeated_notThreefoldUntilThirdRepeat() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe1", "wPe2*", "wNg1", "bKe8", "bPd4",
+                "bNg8"));
+        ChessGame game = new ChessGame(board, log);
+
+        // Black can capture en passant after this move, but not once the knights have moved
+        game.updateGame(new Action(Colour.WHITE, new Point('e', '2'), new Point('e', '4')));
+        GameStatus status = GameStatus.ONGOING;
+        for (int i = 0; i < 3; i++) {
+            assertNotEquals(GameStatus.THREEFOLD_REPETITION, status);
+            game.updateGame(new Action(Colour.BLACK, new Point('g', '8'), new Point('f', '6')));
+            game.updateGame(new Action(Colour.WHITE, new Point('g', '1'), new Point('f', '3')));
+            game.updateGame(new Action(Colour.BLACK, new Point('f', '6'), new Point('g', '8')));
+            status = game.updateGame(new Action(Colour.WHITE, new Point('f', '3'), new Point('g', '1')));
+        }
+
+        assertEquals(GameStatus.THREEFOLD_REPETITION, status);
+    }
+
+    @Test
+    void executeAction_rookReturnsAfterFirstMove_notRepetition() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe1*", "wRh1*", "bKe8*"));
+        ChessGame game = new ChessGame(board, log);
+
+        game.updateGame(new Action(Colour.WHITE, new Point('h', '1'), new Point('h', '2')));
+        game.updateGame(new Action(Colour.BLACK, new Point('e', '8'), new Point('d', '8')));
+        game.updateGame(new Action(Colour.WHITE, new Point('h', '2'), new Point('h', '1')));
+        game.updateGame(new Action(Colour.BLACK, new Point('d', '8'), new Point('e', '8')));
+
+        // The pieces are where they started, but White can no longer castle
+        assertFalse(game.isRepetition());
+    }
+
+    @Test
+    void executeAction_hundredPliesWithoutCaptureOrPawnMove_gameIsFiftyMoveRule() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKa1", "wRa2", "bKh8"));
+        ChessGame game = new ChessGame(board, log);
+        // The rook snakes along ranks 2 to 6 and back, so no position occurs three times
+        List<Point> path = new ArrayList<>();
+        for (int y = 1; y <= 5; y++) {
+            for (int i = 0; i < 6; i++) {
+                path.add(new Point(y % 2 != 0 ? i : 5 - i, y));
+            }
+        }
+        for (int i = path.size() - 2; path.size() < 51; i--) {
+            path.add(path.get(i));
+        }
+
+        GameStatus status = GameStatus.ONGOING;
+        for (int i = 1; i < path.size(); i++) {
+            assertFalse(GameStatus.isCompletedGameStatus(status));
+            game.updateGame(new Action(Colour.WHITE, path.get(i - 1), path.get(i)));
+            Point kingStart = i % 2 != 0 ? new Point('h', '8') : new Point('h', '7');
+            Point kingEnd = i % 2 != 0 ? new Point('h', '7') : new Point('h', '8');
+            status = game.updateGame(new Action(Colour.BLACK, kingStart, kingEnd));
+        }
+
+        assertEquals(100, game.getHalfmoveClock());
+        assertEquals(GameStatus.FIFTY_MOVE_RULE, status);
+        assertTrue(GameStatus.isDrawStatus(status));
+        assertNotEquals(GameStatus.FIFTY_MOVE_RULE, game.undoUpdate());
+        assertEquals(99, game.getHalfmoveClock());
+    }
+
+    @Test
+    void executeAction_captureLeavesOnlyKnight_gameIsInsufficientMaterial() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe1", "wNb5", "bPa7", "bKe8"));
+        ChessGame game = new ChessGame(board, log);
+
+        GameStatus status = game.updateGame(new Action(Colour.WHITE, new Point('b', '5'), new Point('a', '7')));
+
+        assertEquals(GameStatus.INSUFFICIENT_MATERIAL, status);
+        assertEquals(0, game.getHalfmoveClock());
+    }
+
+    @Test
+    void executeAction_bishopsOnSameColour_gameIsInsufficientMaterial() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe1", "wBc1", "bBf8", "bKe8"));
+        ChessGame game = new ChessGame(board, log);
+
+        GameStatus status = game.updateGame(new Action(Colour.WHITE, new Point('e', '1'), new Point('e', '2')));
+
+        assertEquals(GameStatus.INSUFFICIENT_MATERIAL, status);
+    }
+
+    @Test
+    void executeAction_bishopsOnDifferentColours_gameInProgress() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe1", "wBc1", "bBc8", "bKe8"));
+        ChessGame game = new ChessGame(board, log);
+
+        GameStatus status = game.updateGame(new Action(Colour.WHITE, new Point('e', '1'), new Point('e', '2')));
+
+        assertEquals(GameStatus.ONGOING, status);
+    }
+    // endregion
+    // region Seek
+    @Test
+    void testSeek_givenEarlierAndLaterPlies_thenSameAsUndoAndRedo() {
+        Log<Point, Piece> log = new ChessLog();
+        ChessGame game = new ChessGame(new ChessBoard(BoardType.STANDARD, log), log);
+        List<String> positions = new ArrayList<>();
+        List<GameStatus> statuses = new ArrayList<>();
+        List<Integer> scores = new ArrayList<>();
+        List<Long> perfts = new ArrayList<>();
+        positions.add(describe(game.getBoard()));
+        statuses.add(game.getStatus());
+        scores.add(game.evaluateState());
+        perfts.add(game.perft(2));
+        // Captures are preferred, so pieces are removed between snapshots
+        for (int ply = 0; ply < 40 && !GameStatus.isCompletedGameStatus(game.getStatus()); ply++) {
+            statuses.add(game.updateGame(chooseAction(game, ply)));
+            positions.add(describe(game.getBoard()));
+            scores.add(game.evaluateState());
+            perfts.add(game.perft(2));
+        }
+        int plies = log.size();
+        assertTrue(plies > 32);
+
+        for (int ply : new int[]{plies - 3, 5, 17, 0, 16, plies, 1, plies - 1}) {
+            GameStatus status = game.seek(ply);
+            assertEquals(ply, log.size());
+            assertEquals(ply + 1, game.getTurn());
+            assertEquals(positions.get(ply), describe(game.getBoard()));
+            assertEquals(scores.get(ply), game.evaluateState());
+            assertEquals(perfts.get(ply), game.perft(2));
+            if (ply > 0) {
+                assertEquals(statuses.get(ply), status);
+            }
+        }
+
+        // Actions can still be undone and redone one at a time after seeking
+        game.seek(2);
+        game.undoUpdate();
+        assertEquals(positions.get(1), describe(game.getBoard()));
+        assertEquals(perfts.get(1), game.perft(2));
+        game.redoUpdate();
+        game.redoUpdate();
+        assertEquals(positions.get(3), describe(game.getBoard()));
+        assertEquals(perfts.get(3), game.perft(2));
+        assertEquals(4, game.getTurn());
+    }
+
+    @Test
+    void testSeek_givenActionUndoneAndReplaced_thenReplacementRestored() {
+        Log<Point, Piece> log = new ChessLog();
+        ChessGame game = new ChessGame(new ChessBoard(BoardType.STANDARD, log), log);
+        String[] moves = {"e2", "e4", "e7", "e5", "g1", "f3", "b8", "c6", "f1", "c4", "f8", "c5", "d2", "d3", "d7",
+                "d6", "b1", "c3", "g8", "f6", "c1", "g5", "h7", "h6", "g5", "h4", "g7", "g5", "h4", "g3"};
+        for (int i = 0; i < moves.length; i += 2) {
+            game.updateGame(new Point(moves[i]), new Point(moves[i + 1]), i % 4 == 0 ? Colour.WHITE : Colour.BLACK);
+        }
+        assertEquals(15, log.size());
+        // The 16th action is at a snapshot's ply, and is undone and replaced by a different action
+        game.updateGame(new Point("c8"), new Point("g4"), Colour.BLACK);
+        game.undoUpdate();
+        game.updateGame(new Point("a7"), new Point("a6"), Colour.BLACK);
+        String position = describe(game.getBoard());
+        long nodes = game.perft(2);
+        game.updateGame(new Point("a2"), new Point("a3"), Colour.WHITE);
+        assertEquals(17, log.size());
+
+        game.seek(16);
+        assertEquals(position, describe(game.getBoard()));
+        assertEquals(nodes, game.perft(2));
+    }
+
+    @Test
+    void testUndoUpdate_givenManyActions_thenThreatsAppliedOnce() {
+        Log<Point, Piece> log = new ChessLog();
+        ChessGame game = new ChessGame(new ChessBoard(BoardType.STANDARD, log), log);
+        for (int ply = 0; ply < 24; ply++) {
+            game.updateGame(chooseAction(game, ply));
+        }
+        ThreatMap whiteThreats = game.getThreatMap(Colour.WHITE);
+        ThreatMap blackThreats = game.getThreatMap(Colour.BLACK);
+        int whiteApplied = whiteThreats.getChangesApplied();
+        int blackApplied = blackThreats.getChangesApplied();
+
+        // Each map applies the changes of every undone action at once, when the status is found
+        game.undoUpdate(20, true);
+        assertTrue(whiteThreats.getChangesApplied() - whiteApplied <= 1);
+        assertTrue(blackThreats.getChangesApplied() - blackApplied <= 1);
+        assertTrue(whiteThreats.getChangesApplied() + blackThreats.getChangesApplied() > whiteApplied + blackApplied);
+        assertEquals(5, game.getTurn());
+
+        whiteApplied = whiteThreats.getChangesApplied();
+        blackApplied = blackThreats.getChangesApplied();
+        game.redoUpdate(20);
+        assertTrue(whiteThreats.getChangesApplied() - whiteApplied <= 1);
+        assertTrue(blackThreats.getChangesApplied() - blackApplied <= 1);
+        assertEquals(25, game.getTurn());
+    }
+
+    /**
+     * Chooses a legal action that captures if there is one, or otherwise one that varies with the ply so the game
+     * does not repeat itself.
+     */
+    private static Action chooseAction(ChessGame game, int ply) {
+        List<Action> legal = new ArrayList<>();
+        Action chosen = null;
+        for (Action action : game.potentialUpdates()) {
+            if (game.makeMove(action)) {
+                game.unmakeMove();
+                legal.add(action);
+                if (chosen == null && game.isCapture(action)) {
+                    chosen = action;
+                }
+            }
+        }
+        return chosen != null ? chosen : legal.get(ply * 7 % legal.size());
+    }
+
+    private static String describe(Board board) {
+        List<String> pieces = new ArrayList<>();
+        for (Piece piece : board.getPieces()) {
+            pieces.add(piece.getColour().toCode() + piece.getCode() + piece.getPoint() + piece.getHasMoved());
+        }
+        pieces.sort(null);
+        return String.join(" ", pieces);
+    }
+    // endregion
+
+    private static void assertLegalDestinationsMatchPerft(ChessGame game, int depth) {
+        int count = 0;
+        for (BitSet bits : game.legalDestinations().values()) {
+            count += bits.cardinality();
+        }
+        assertEquals(game.perft(1), count);
+        if (depth <= 1) {
+            return;
+        }
+        for (Action action : new LinkedHashSet<>(toList(game.potentialUpdates()))) {
+            if (GameStatus.NO_CHANGE.equals(game.updateGame(action))) {
+                continue;
+            }
+            assertLegalDestinationsMatchPerft(game, depth - 1);
+            game.undoUpdate(1, false);
+        }
+    }
+
+    private static List<Action> toList(Iterable<Action> actions) {
+        List<Action> list = new ArrayList<>();
+        actions.forEach(list::add);
+        return list;
+    }
+
 }
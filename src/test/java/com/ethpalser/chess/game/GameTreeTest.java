@@ -1,6 +1,13 @@
 package com.ethpalser.chess.game;
 
+import com.ethpalser.chess.board.Board;
+import com.ethpalser.chess.board.BoardType;
+import com.ethpalser.chess.board.ChessBoard;
+import com.ethpalser.chess.log.ChessLog;
+import com.ethpalser.chess.log.Log;
 import com.ethpalser.chess.piece.Colour;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.space.Point;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
@@ -84,6 +91,101 @@ class GameTreeTest {
         assertEquals(5, result.getEnd().getX());
     }
 
+    @Test
+    void testNextBest_givenStalemateWithBetterEvaluation_thenStalemateScoredAsDraw() {
+        MockNode testCase = new MockNode(Colour.BLACK, 0, List.of(
+                MockNode.terminal(Colour.WHITE, 5),
+                new MockNode(Colour.WHITE, 3, List.of())
+        ));
+        GameTree tree = new GameTree(new MockGame(testCase));
+
+        // The stalemate is a draw whatever the material, so the state worth 3 is better
+        Action result = tree.nextBest(2);
+
+        assertNotNull(result);
+        assertEquals(3, result.getEnd().getX());
+    }
+
+    @Test
+    void testNextBest_givenCaptureOfDefendedPawn_thenCaptureNotChosen() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKa1", "wQd1", "bPd5", "bPe6", "bKh8"));
+        ChessGame game = new ChessGame(board, log);
+        GameTree tree = new GameTree(game);
+
+        Action result = tree.nextBest(1);
+
+        // Taking the pawn looks best at depth 1, but the queen is recaptured when the captures are searched further
+        assertNotNull(result);
+        assertNotEquals(new Action(Colour.WHITE, new Point('d', '1'), new Point('d', '5')), result);
+    }
+
+    @Test
+    void testNextBest_givenLosingPlayerCanRepeat_thenRepetitionChosen() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKa1", "wRc1", "bKh8"));
+        ChessGame game = new ChessGame(board, log);
+        game.updateGame(new Action(Colour.WHITE, new Point('a', '1'), new Point('b', '1')));
+        game.updateGame(new Action(Colour.BLACK, new Point('h', '8'), new Point('g', '8')));
+        game.updateGame(new Action(Colour.WHITE, new Point('b', '1'), new Point('a', '1')));
+        GameTree tree = new GameTree(game);
+
+        Action result = tree.nextBest(1);
+
+        // Black is down a rook, so returning to the starting position is scored as a draw and preferred
+        assertEquals(new Action(Colour.BLACK, new Point('g', '8'), new Point('h', '8')), result);
+    }
+
+    @Test
+    void testNextBest_givenBackRankMate_thenMateChosen() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log,
+                List.of("wKg1", "wRa1", "wPg2", "bPf7", "bPg7", "bPh7", "bKg8"));
+        ChessGame game = new ChessGame(board, log);
+        GameTree tree = new GameTree(game);
+
+        Action result = tree.nextBest(1);
+
+        // Black has no legal action after the rook checks, which is only found by attempting each of them
+        assertEquals(new Action(Colour.WHITE, new Point('a', '1'), new Point('a', '8')), result);
+        assertEquals(GameStatus.PENDING, game.getStatus());
+    }
+
+    @Test
+    void testNextBest_givenQueenSideCastled_thenSearchFindsAction() {
+        Log<Point, Piece> log = new ChessLog();
+        ChessGame game = new ChessGame(new ChessBoard(BoardType.STANDARD, log), log);
+        String[] moves = {"d2", "d4", "d7", "d5", "b1", "c3", "b8", "c6", "c1", "f4", "c8", "f5", "d1", "d2", "d8",
+                "d7", "e1", "c1"};
+        for (int i = 0; i < moves.length; i += 2) {
+            game.updateGame(new Point(moves[i]), new Point(moves[i + 1]), i % 4 == 0 ? Colour.WHITE : Colour.BLACK);
+        }
+        GameTree tree = new GameTree(game);
+
+        Action result = tree.nextBest(2);
+
+        // The castled rook is on d1, so no action is generated from a1
+        assertEquals(9, log.size());
+        assertEquals(new Point('d', '1'), game.getBoard().getPiece(new Point('d', '1')).getPoint());
+        assertNotNull(result);
+    }
+
+    @Test
+    void testMinimax_givenDoubleCheckWithKingEscapes_thenNotScoredAsMate() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log,
+                List.of("wKh1", "wRe1", "wPh2*", "bQh5", "wNe6", "bPa7*", "bKe8"));
+        ChessGame game = new ChessGame(board, log);
+        GameTree tree = new GameTree(game);
+
+        // Ne6-c7 checks with the knight and the rook, which the king can escape but no other piece can stop
+        assertTrue(tree.minimax(2) < Integer.MAX_VALUE / 4);
+        game.updateGame(new Point('e', '6'), new Point('c', '7'), Colour.WHITE);
+        Action result = new GameTree(game).nextBest(1);
+        assertNotNull(result);
+        assertEquals(new Point('e', '8'), result.getStart());
+    }
+
     @Test
     void testMinimax_givenNull_thenMinimumValue() {
         MockNode testCase = null;
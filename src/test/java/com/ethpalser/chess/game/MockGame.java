@@ -24,6 +24,11 @@ public class MockGame implements Game {
 
     @Override
     public GameStatus updateGame(Action action) {
+        if (action.getStart().equals(action.getEnd())) {
+            // Passing keeps the game at the current node
+            this.logStack.push(this.current);
+            return GameStatus.ONGOING;
+        }
         for (MockNode node : current.getNext()) {
             int val = action.getEnd().getX();
             if (node.getValue() == val) {
@@ -92,6 +97,11 @@ public class MockGame implements Game {
         if (this.current == null) {
             return List.of();
         }
+        // A leaf below the root is a state that is not expanded further rather than the end of a game, so it can
+        // only be passed until the search reaches its depth and evaluates it
+        if (this.current != this.root && this.current.getNext().isEmpty() && !this.current.isTerminal()) {
+            return List.of(this.current.getPass());
+        }
         return this.current.getChildren();
     }
 
@@ -10,11 +10,24 @@ public class MockNode {
     private final Colour colour;
     private final int value;
     private final List<MockNode> next;
+    private final boolean isTerminal;
 
     public MockNode(Colour colour, int value, List<MockNode> children) {
+        this(colour, value, children, false);
+    }
+
+    private MockNode(Colour colour, int value, List<MockNode> children, boolean isTerminal) {
         this.colour = colour;
         this.value = value;
         this.next = children;
+        this.isTerminal = isTerminal;
+    }
+
+    /**
+     * Creates a node where the game ended without a winner, such as a stalemate, so it has no actions at all.
+     */
+    public static MockNode terminal(Colour colour, int value) {
+        return new MockNode(colour, value, List.of(), true);
     }
 
     public int getValue() {
@@ -25,6 +38,17 @@ public class MockNode {
         return this.next;
     }
 
+    public boolean isTerminal() {
+        return this.isTerminal;
+    }
+
+    /**
+     * @return an action that keeps the game at this node, such as for a node that is not expanded further
+     */
+    public Action getPass() {
+        return new Action(Colour.opposite(this.colour), new Point(this.value, 0), new Point(this.value, 0));
+    }
+
     public List<Action> getChildren() {
         return this.next.stream().map(n -> new Action(Colour.opposite(this.colour), new Point(this.value, 0),
                 new Point(n.value, 0))).collect(Collectors.toList());
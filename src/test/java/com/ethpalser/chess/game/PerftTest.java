@@ -0,0 +1,183 @@
+package com.ethpalser.chess.game;
+
+import com.ethpalser.chess.board.Board;
+import com.ethpalser.chess.board.BoardTestCases;
+import com.ethpalser.chess.board.BoardType;
+import com.ethpalser.chess.board.ChessBoard;
+import com.ethpalser.chess.log.ChessLog;
+import com.ethpalser.chess.log.Log;
+import com.ethpalser.chess.log.PackedLog;
+import com.ethpalser.chess.piece.Colour;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.space.Point;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+class PerftTest {
+
+    @Test
+    void testPerft_givenStandardStartingBoard_thenKnownNodeCounts() {
+        Board board = new ChessBoard(BoardType.STANDARD);
+        Log<Point, Piece> log = new ChessLog();
+        ChessGame game = new ChessGame(board, log);
+
+        assertEquals(20, game.perft(1));
+        assertEquals(400, game.perft(2));
+        assertEquals(8902, game.perft(3));
+    }
+
+    @Test
+    void testPerft_givenCustomStartingBoard_thenKnownNodeCounts() {
+        Board board = new ChessBoard(BoardType.CUSTOM);
+        Log<Point, Piece> log = new ChessLog();
+        ChessGame game = new ChessGame(board, log);
+
+        assertEquals(20, game.perft(1));
+        assertEquals(400, game.perft(2));
+        assertEquals(8902, game.perft(3));
+    }
+
+    @Test
+    void testPerft_givenStandardPosition3_thenKnownNodeCounts() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, BoardTestCases.perftPosition3);
+        ChessGame game = new ChessGame(board, log);
+
+        assertEquals(14, game.perft(1));
+        assertEquals(191, game.perft(2));
+        assertEquals(2812, game.perft(3));
+        assertEquals(43238, game.perft(4));
+        assertEquals(674624, game.perft(5));
+    }
+
+    @Test
+    void testPerft_givenKiwipete_thenKnownNodeCounts() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, BoardTestCases.perftKiwipete);
+        ChessGame game = new ChessGame(board, log);
+
+        assertEquals(48, game.perft(1));
+        assertEquals(2039, game.perft(2));
+        assertEquals(97862, game.perft(3));
+    }
+
+    @Test
+    void testPerft_givenStandardPosition4_thenKnownNodeCounts() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, BoardTestCases.perftPosition4);
+        ChessGame game = new ChessGame(board, log);
+
+        assertEquals(6, game.perft(1));
+        assertEquals(264, game.perft(2));
+        assertEquals(9467, game.perft(3));
+    }
+
+    @Test
+    void testPerft_givenStandardPosition5_thenKnownNodeCounts() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, BoardTestCases.perftPosition5);
+        ChessGame game = new ChessGame(board, log);
+
+        assertEquals(44, game.perft(1));
+        assertEquals(1486, game.perft(2));
+        assertEquals(62379, game.perft(3));
+    }
+
+    @Test
+    void testDivide_givenPromotingPawn_thenActionForEachPromotion() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, BoardTestCases.perftPosition5);
+        ChessGame game = new ChessGame(board, log);
+
+        PerftResult result = game.divide(2);
+
+        // Each piece the pawn can promote to is a separate action, with its own replies
+        assertEquals(31, result.getDivide().get("d7c8q"));
+        assertEquals(41, result.getDivide().get("d7c8n"));
+        assertEquals(31, result.getDivide().get("d7c8r"));
+        assertEquals(41, result.getDivide().get("d7c8b"));
+    }
+
+    @Test
+    void testPerft_givenDoubleCheck_thenOnlyKingActions() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, BoardTestCases.perftDoubleCheck);
+        ChessGame game = new ChessGame(board, log);
+
+        assertEquals(GameStatus.BLACK_IN_CHECK, game.updateGame(new Point("e6"), new Point("c7"), Colour.WHITE));
+        assertEquals(4, game.perft(1));
+        assertEquals(92, game.perft(2));
+        assertEquals(2069, game.perft(3));
+    }
+
+    @Test
+    void testDivide_givenCheckByDoubleStep_thenEnPassantCaptureOfChecker() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKf3", "wPe5", "bPd7*", "bKh8"));
+        ChessGame game = new ChessGame(board, log);
+        game.updateGame(new Point('f', '3'), new Point('e', '4'), Colour.WHITE);
+        game.updateGame(new Point('d', '7'), new Point('d', '5'), Colour.BLACK);
+
+        PerftResult result = game.divide(1);
+
+        assertEquals(8, result.getNodes());
+        assertEquals(1, result.getDivide().get("e5d6"));
+        assertEquals(215, game.perft(3));
+    }
+
+    @Test
+    void testPerft_givenCustomPosition3_thenKnownNodeCounts() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.CUSTOM, log, BoardTestCases.perftPosition3Custom);
+        ChessGame game = new ChessGame(board, log);
+
+        assertEquals(14, game.perft(1));
+        assertEquals(191, game.perft(2));
+        assertEquals(2812, game.perft(3));
+        assertEquals(43238, game.perft(4));
+    }
+
+    @Test
+    void testPerft_givenPackedLog_thenSameNodeCountsAsChessLog() {
+        Log<Point, Piece> log = new PackedLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, BoardTestCases.perftPosition3);
+        ChessGame game = new ChessGame(board, log);
+
+        assertEquals(14, game.perft(1));
+        assertEquals(191, game.perft(2));
+        assertEquals(2812, game.perft(3));
+        assertEquals(43238, game.perft(4));
+        assertTrue(log.isEmpty());
+    }
+
+    @Test
+    void testPerft_givenSearchCompleted_thenBoardAndLogUnchanged() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, BoardTestCases.perftPosition3);
+        ChessGame game = new ChessGame(board, log);
+        String before = board.toString();
+
+        game.perft(3);
+
+        assertEquals(before, board.toString());
+        assertTrue(log.isEmpty());
+        assertEquals(1, game.getTurn());
+    }
+
+    @Test
+    void testDivide_givenStandardStartingBoard_thenSumsToPerftWithNodesPerSecond() {
+        Board board = new ChessBoard(BoardType.STANDARD);
+        Log<Point, Piece> log = new ChessLog();
+        ChessGame game = new ChessGame(board, log);
+
+        PerftResult result = game.divide(3);
+
+        assertEquals(20, result.getDivide().size());
+        assertEquals(8902, result.getNodes());
+        assertEquals(600, result.getDivide().get("e2e4"));
+        assertEquals(380, result.getDivide().get("a2a3"));
+        assertTrue(result.getNodesPerSecond() > 0);
+    }
+
+}
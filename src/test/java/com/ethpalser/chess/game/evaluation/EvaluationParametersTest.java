@@ -0,0 +1,63 @@
+package com.ethpalser.chess.game.evaluation;
+
+import com.ethpalser.chess.move.map.ThreatMap;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class EvaluationParametersTest {
+
+    @Test
+    void testLoad_givenSavedDefaults_thenSameWeights() throws IOException {
+        StringWriter writer = new StringWriter();
+        EvaluationParameters.defaults().save(writer);
+
+        EvaluationParameters loaded = EvaluationParameters.load(new StringReader(writer.toString()));
+
+        assertEquals(900, loaded.getMaterial("Q", EvaluationParameters.MIDGAME));
+        assertEquals(100, loaded.getMaterial("P", EvaluationParameters.ENDGAME));
+        assertEquals(-100, loaded.getPawnStructureWeight(ThreatMap.DOUBLED_PAWNS, EvaluationParameters.ENDGAME));
+        assertEquals(2, loaded.getPhase("R"));
+        assertEquals(24, loaded.getMaxPhase());
+    }
+
+    @Test
+    void testFromJson_givenMissingTerms_thenNoWeight() {
+        EvaluationParameters parameters = EvaluationParameters.fromJson("{\"material\": {\"N\": [3, 2]}}");
+
+        assertEquals(2, parameters.getMaterial("N", EvaluationParameters.ENDGAME));
+        assertEquals(0, parameters.getMaterial("Q", EvaluationParameters.MIDGAME));
+        assertEquals(0, parameters.getPawnStructureWeight(ThreatMap.PAWN_WALL, EvaluationParameters.MIDGAME));
+        assertEquals(0, parameters.getMobilityWeight(EvaluationParameters.ENDGAME));
+        assertEquals(0, parameters.getPhase("N"));
+    }
+
+    @Test
+    void testFromJson_givenWeightWithoutEndgame_thenThrows() {
+        assertThrows(IllegalArgumentException.class, () -> EvaluationParameters.fromJson("{\"pawnWall\": [1]}"));
+    }
+
+    @Test
+    void testLoad_givenMalformedFile_thenThrows() {
+        assertThrows(IOException.class, () -> EvaluationParameters.load(new StringReader("{\"material\": [")));
+    }
+
+    @Test
+    void testWithWeights_givenChangedWeights_thenSameOrder() {
+        EvaluationParameters defaults = EvaluationParameters.defaults();
+        int[] weights = defaults.getWeights();
+        // Material is first and ordered by code, so B comes first
+        weights[0] = 320;
+
+        EvaluationParameters changed = defaults.withWeights(weights);
+
+        assertEquals(320, changed.getMaterial("B", EvaluationParameters.MIDGAME));
+        assertEquals(300, defaults.getMaterial("B", EvaluationParameters.MIDGAME));
+        assertEquals(weights.length, changed.getWeights().length);
+        assertThrows(IllegalArgumentException.class, () -> defaults.withWeights(new int[1]));
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.ethpalser.chess.game.evaluation;
+
+import com.ethpalser.chess.board.Board;
+import com.ethpalser.chess.board.BoardType;
+import com.ethpalser.chess.board.ChessBoard;
+import com.ethpalser.chess.game.Action;
+import com.ethpalser.chess.game.ChessGame;
+import com.ethpalser.chess.log.ChessLog;
+import com.ethpalser.chess.log.Log;
+import com.ethpalser.chess.piece.Colour;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.space.Point;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class IncrementalEvaluatorTest {
+
+    private static final int[] PAWN_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            1, 1, 1, 1, 1, 1, 1, 1,
+            2, 2, 2, 2, 2, 2, 2, 2,
+            3, 3, 3, 3, 3, 3, 3, 3,
+            4, 4, 4, 4, 4, 4, 4, 4,
+            5, 5, 5, 5, 5, 5, 5, 5,
+            6, 6, 6, 6, 6, 6, 6, 6,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    @Test
+    void testRefresh_givenCaptureAndUndo_thenSameAsNewEvaluator() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log);
+        ChessGame game = new ChessGame(board, log);
+        EvaluationParameters parameters = EvaluationParameters.fromJson(
+                "{\"material\": {\"P\": [1, 1]}, \"midgameTables\": {\"P\": " + Arrays.toString(PAWN_TABLE)
+                        + "}, \"endgameTables\": {\"P\": " + Arrays.toString(PAWN_TABLE) + "}}");
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(board.getPieces(), parameters);
+
+        game.updateGame(new Action(Colour.WHITE, new Point("e2"), new Point("e4")));
+        evaluator.refresh(new Point("e2"));
+        evaluator.refresh(new Point("e4"));
+        game.updateGame(new Action(Colour.BLACK, new Point("d7"), new Point("d5")));
+        evaluator.refresh(new Point("d7"));
+        evaluator.refresh(new Point("d5"));
+        game.updateGame(new Action(Colour.WHITE, new Point("e4"), new Point("d5")));
+        evaluator.refresh(new Point("e4"));
+        evaluator.refresh(new Point("d5"));
+
+        // White's pawn advanced 3 ranks, Black's 2 and Black lost its advanced pawn (3 from its table)
+        assertEquals(1, evaluator.getMaterial());
+        assertEquals(4, evaluator.getPositional());
+        assertEquals(new IncrementalEvaluator(board.getPieces(), parameters).evaluate(), evaluator.evaluate());
+
+        game.undoUpdate(1, false);
+        evaluator.refresh(new Point("e4"));
+        evaluator.refresh(new Point("d5"));
+        assertEquals(0, evaluator.getMaterial());
+        assertEquals(new IncrementalEvaluator(board.getPieces(), parameters).evaluate(), evaluator.evaluate());
+    }
+
+    @Test
+    void testGetPhase_givenPiecesCaptured_thenMidgameBlendedTowardsEndgame() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe1", "wQd1", "wPe2", "bKe8", "bRa8"));
+        EvaluationParameters parameters = EvaluationParameters.fromJson(
+                "{\"material\": {\"Q\": [8, 12], \"R\": [4, 6], \"P\": [1, 2]}, "
+                        + "\"phase\": {\"Q\": 4, \"R\": 2}, \"maxPhase\": 12}");
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(board.getPieces(), parameters);
+
+        // Phase 6 of 12 is halfway, so midgame 5 and endgame 8 blend to 6.5, rounded down
+        assertEquals(6, evaluator.getPhase());
+        assertEquals(6, evaluator.getMaterial());
+
+        board.getPieces().remove(new Point("a8"));
+        evaluator.refresh(new Point("a8"));
+        // Phase 4 of 12, so midgame 9 and endgame 14 blend to (9 * 4 + 14 * 8) / 12
+        assertEquals(4, evaluator.getPhase());
+        assertEquals(12, evaluator.getMaterial());
+        assertEquals(4, evaluator.taper(10, 1));
+    }
+
+    @Test
+    void testGetPawnKey_givenOnlyOtherPiecesMoved_thenUnchanged() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log);
+        ChessGame game = new ChessGame(board, log);
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(board.getPieces(), EvaluationParameters.defaults());
+        long start = evaluator.getPawnKey();
+
+        game.updateGame(new Action(Colour.WHITE, new Point("g1"), new Point("f3")));
+        evaluator.refresh(new Point("g1"));
+        evaluator.refresh(new Point("f3"));
+        assertEquals(start, evaluator.getPawnKey());
+
+        game.updateGame(new Action(Colour.BLACK, new Point("e7"), new Point("e5")));
+        evaluator.refresh(new Point("e7"));
+        evaluator.refresh(new Point("e5"));
+        long afterPawnMove = evaluator.getPawnKey();
+        assertNotEquals(start, afterPawnMove);
+        assertEquals(new IncrementalEvaluator(board.getPieces(), EvaluationParameters.defaults()).getPawnKey(),
+                afterPawnMove);
+
+        game.undoUpdate(1, false);
+        evaluator.refresh(new Point("e7"));
+        evaluator.refresh(new Point("e5"));
+        assertEquals(start, evaluator.getPawnKey());
+    }
+
+    @Test
+    void testScale_givenSmallerBoard_thenNearestBaseBonuses() {
+        PieceSquareTables tables = new PieceSquareTables(Map.of("P", PAWN_TABLE));
+
+        int[] scaled = tables.scale("P", 2, 4);
+
+        assertArrayEquals(new int[]{0, 0, 2, 2, 4, 4, 6, 6}, scaled);
+        assertNull(tables.scale("N", 2, 4));
+    }
+
+    @Test
+    void testScale_givenLargerBoard_thenBonusesRepeated() {
+        PieceSquareTables tables = new PieceSquareTables(Map.of("P", PAWN_TABLE));
+
+        int[] scaled = tables.scale("P", 16, 16);
+
+        assertEquals(0, scaled[15]);
+        assertEquals(1, scaled[2 * 16]);
+        assertEquals(1, scaled[3 * 16 + 7]);
+        assertEquals(6, scaled[13 * 16]);
+    }
+
+    @Test
+    void testConstructor_givenTableOfWrongSize_thenThrows() {
+        Map<String, int[]> tables = Map.of("P", new int[10]);
+        assertThrows(IllegalArgumentException.class, () -> new PieceSquareTables(tables));
+    }
+
+}
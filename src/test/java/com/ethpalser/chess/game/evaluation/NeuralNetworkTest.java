@@ -0,0 +1,97 @@
+package com.ethpalser.chess.game.evaluation;
+
+import com.ethpalser.chess.board.Board;
+import com.ethpalser.chess.board.BoardType;
+import com.ethpalser.chess.board.ChessBoard;
+import com.ethpalser.chess.game.Action;
+import com.ethpalser.chess.game.ChessGame;
+import com.ethpalser.chess.log.ChessLog;
+import com.ethpalser.chess.log.Log;
+import com.ethpalser.chess.piece.Colour;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.piece.standard.Pawn;
+import com.ethpalser.chess.space.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class NeuralNetworkTest {
+
+    private static final List<String> CODES = List.of("P", "N", "B", "R", "Q", "K");
+    private static final int HIDDEN_SIZE = 16;
+
+    @Test
+    void testEvaluate_givenClippedAccumulator_thenOutputOfActivations() {
+        NeuralNetwork network = new NeuralNetwork(1, 1, List.of("P"), 2, new short[]{100, -50, 300, 10},
+                new short[]{5, 5}, new short[]{2, 3}, 10, 4);
+        short[] accumulator = network.newAccumulator();
+
+        network.addFeature(accumulator, network.getFeature(new Pawn(Colour.BLACK, new Point(0, 0)), 0));
+
+        // Black's pawn adds 300 and 10, so the activations are min(305, 255) and 15
+        assertEquals((255 * 2 + 15 * 3 + 10) / 4, network.evaluate(accumulator));
+    }
+
+    @Test
+    void testEvaluateState_givenMovesAndUndo_thenSameAsNewAccumulator() {
+        NeuralNetwork network = randomNetwork();
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log);
+        ChessGame game = new ChessGame(board, log);
+        game.setNeuralNetwork(network);
+        int start = game.evaluateState();
+
+        game.updateGame(new Action(Colour.WHITE, new Point("e2"), new Point("e4")));
+        game.updateGame(new Action(Colour.BLACK, new Point("d7"), new Point("d5")));
+        game.updateGame(new Action(Colour.WHITE, new Point("e4"), new Point("d5")));
+
+        IncrementalEvaluator fresh = new IncrementalEvaluator(board.getPieces(), EvaluationParameters.defaults(),
+                network);
+        assertEquals(fresh.evaluateNetwork(), game.evaluateState());
+        game.undoUpdate(3, false);
+        assertEquals(start, game.evaluateState());
+    }
+
+    @Test
+    void testLoad_givenSavedNetwork_thenSameEvaluation() throws IOException {
+        NeuralNetwork network = randomNetwork();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        network.save(out);
+
+        NeuralNetwork loaded = NeuralNetwork.load(new ByteArrayInputStream(out.toByteArray()));
+
+        Board board = new ChessBoard(BoardType.STANDARD);
+        assertEquals(new IncrementalEvaluator(board.getPieces(), EvaluationParameters.defaults(), network)
+                        .evaluateNetwork(),
+                new IncrementalEvaluator(board.getPieces(), EvaluationParameters.defaults(), loaded)
+                        .evaluateNetwork());
+    }
+
+    @Test
+    void testLoad_givenNotNetworkFile_thenThrows() {
+        byte[] bytes = {1, 2, 3, 4, 5, 6, 7, 8};
+        assertThrows(IOException.class, () -> NeuralNetwork.load(new ByteArrayInputStream(bytes)));
+    }
+
+    private static NeuralNetwork randomNetwork() {
+        SplittableRandom random = new SplittableRandom(42);
+        int features = 2 * CODES.size() * 64;
+        short[] featureWeights = new short[features * HIDDEN_SIZE];
+        for (int i = 0; i < featureWeights.length; i++) {
+            featureWeights[i] = (short) random.nextInt(-30, 31);
+        }
+        short[] featureBiases = new short[HIDDEN_SIZE];
+        short[] outputWeights = new short[HIDDEN_SIZE];
+        for (int i = 0; i < HIDDEN_SIZE; i++) {
+            featureBiases[i] = (short) random.nextInt(0, 100);
+            outputWeights[i] = (short) random.nextInt(-64, 65);
+        }
+        return new NeuralNetwork(8, 8, CODES, HIDDEN_SIZE, featureWeights, featureBiases, outputWeights, 0, 64);
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.ethpalser.chess.game.evaluation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class PawnHashTableTest {
+
+    @Test
+    void testGet_givenKeyPut_thenTerms() {
+        PawnHashTable table = new PawnHashTable(16);
+        table.put(0L, new int[]{-3, 0, 1});
+        table.put(123456789L, new int[]{7, 1, 0});
+
+        assertArrayEquals(new int[]{-3, 0, 1}, table.get(0L));
+        assertArrayEquals(new int[]{7, 1, 0}, table.get(123456789L));
+        assertNull(table.get(42L));
+    }
+
+    @Test
+    void testPut_givenKeysOfSameEntry_thenLatestReplaces() {
+        PawnHashTable table = new PawnHashTable(16);
+        table.put(1L, new int[]{5});
+        table.put(17L, new int[]{9});
+
+        assertNull(table.get(1L));
+        assertArrayEquals(new int[]{9}, table.get(17L));
+    }
+
+    @Test
+    void testConstructor_givenSizeNotPowerOfTwo_thenThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new PawnHashTable(12));
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.ethpalser.chess.game.evaluation;
+
+import com.ethpalser.chess.board.BoardType;
+import com.ethpalser.chess.board.ChessBoard;
+import com.ethpalser.chess.game.ChessGame;
+import com.ethpalser.chess.log.ChessLog;
+import com.ethpalser.chess.log.Log;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.space.Point;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TexelTunerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testTune_givenQueenWithoutMaterial_thenLowerError() throws IOException {
+        Path positions = this.dir.resolve("positions.txt");
+        Files.write(positions, List.of(
+                "# queen up wins",
+                "1-0 wKe1 wQd1 bKe8",
+                "0-1 wKe1 bKe8 bQd8",
+                "",
+                "1/2-1/2 wKe1 bKe8"
+        ));
+        EvaluationParameters initial = EvaluationParameters.fromJson("{\"material\": {\"Q\": [0, 0]}}");
+        TexelTuner tuner = new TexelTuner(BoardType.STANDARD, ForkJoinPool.commonPool(), 2, 0.005);
+
+        EvaluationParameters tuned = tuner.tune(positions, initial, 3);
+
+        assertTrue(tuner.error(positions, tuned) < tuner.error(positions, initial));
+        // Without phase weights every position is an endgame
+        assertTrue(tuned.getMaterial("Q", EvaluationParameters.ENDGAME) > 0);
+    }
+
+    @Test
+    void testError_givenEveryTermWeighted_thenPredictsFromGameScore() throws IOException {
+        List<List<String>> pieces = List.of(
+                List.of("wKg1", "wQd1", "wPf2", "wPg2", "wPg3", "bKg8", "bRd8", "bPf7", "bPe5"),
+                List.of("wKe1*", "wRh1*", "wNc3", "wPd4", "bKe8", "bBb4", "bPc7", "bPd5"),
+                List.of("wKa1", "bKh8", "bQb3", "bPa2"));
+        List<Double> results = List.of(1.0, 0.5, 0.0);
+        Path positions = this.dir.resolve("positions.txt");
+        Files.write(positions, List.of("1-0 " + String.join(" ", pieces.get(0)),
+                "1/2-1/2 " + String.join(" ", pieces.get(1)), "0-1 " + String.join(" ", pieces.get(2))));
+        EvaluationParameters parameters = EvaluationParameters.fromJson("{\"material\": {\"P\": [90, 120], "
+                + "\"N\": [310, 290], \"B\": [320, 330], \"R\": [480, 520], \"Q\": [950, 900]}, "
+                + "\"pawnWall\": [7, 3], \"pawnCenterControl\": [11, 2], \"doubledPawns\": [-13, -25], "
+                + "\"mobility\": [4, 6], \"kingAttacks\": [-9, -2], "
+                + "\"phase\": {\"N\": 1, \"B\": 1, \"R\": 2, \"Q\": 4}, \"maxPhase\": 24}");
+        double scale = 0.004;
+
+        double expected = 0;
+        for (int i = 0; i < pieces.size(); i++) {
+            Log<Point, Piece> log = new ChessLog();
+            ChessGame game = new ChessGame(new ChessBoard(BoardType.STANDARD, log, pieces.get(i)), log);
+            game.setEvaluationParameters(parameters);
+            double difference = results.get(i) - 1.0 / (1.0 + Math.pow(10, -scale * game.evaluateState()));
+            expected += difference * difference / pieces.size();
+        }
+        TexelTuner tuner = new TexelTuner(BoardType.STANDARD, new ForkJoinPool(2), 3, scale);
+
+        assertEquals(expected, tuner.error(positions, parameters), 1e-12);
+    }
+
+    @Test
+    void testMain_givenPositions_thenWritesLoadableParameters() throws IOException {
+        Path positions = this.dir.resolve("positions.txt");
+        Path output = this.dir.resolve("parameters.json");
+        Files.write(positions, List.of("1-0 wKe1 wRa1 bKe8", "0.5 wKe1 bKe8"));
+
+        TexelTuner.main(new String[]{positions.toString(), output.toString()});
+
+        try (Reader reader = Files.newBufferedReader(output)) {
+            EvaluationParameters loaded = EvaluationParameters.load(reader);
+            assertEquals(EvaluationParameters.defaults().getWeights().length, loaded.getWeights().length);
+        }
+    }
+
+    @Test
+    void testError_givenUnknownResult_thenThrows() throws IOException {
+        Path positions = this.dir.resolve("positions.txt");
+        Files.write(positions, List.of("win wKe1 bKe8"));
+
+        assertThrows(IOException.class, () -> new TexelTuner().error(positions, EvaluationParameters.defaults()));
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.ethpalser.chess.log;
+
+import com.ethpalser.chess.board.BoardType;
+import com.ethpalser.chess.board.ChessBoard;
+import com.ethpalser.chess.game.ChessGame;
+import com.ethpalser.chess.piece.Colour;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.piece.standard.King;
+import com.ethpalser.chess.piece.standard.Pawn;
+import com.ethpalser.chess.piece.standard.Queen;
+import com.ethpalser.chess.piece.standard.Rook;
+import com.ethpalser.chess.space.Point;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PackedLogTest {
+
+    @Test
+    void testPeek_givenEmpty_thenNull() {
+        PackedLog log = new PackedLog();
+
+        Assertions.assertNull(log.peek());
+        Assertions.assertNull(log.pop());
+        Assertions.assertNull(log.undo());
+        Assertions.assertNull(log.redo());
+    }
+
+    @Test
+    void testPeek_givenPushedEntry_thenSamePointsAndPieces() {
+        PackedLog log = new PackedLog();
+        Point p1 = new Point(3, 1);
+        Point p2 = new Point(4, 2);
+        Pawn moved = new Pawn(Colour.WHITE, p1);
+        Pawn captured = new Pawn(Colour.BLACK, p2);
+        log.push(new ChessLogEntry(p1, p2, moved, captured));
+
+        LogEntry<Point, Piece> entry = log.peek();
+        Assertions.assertEquals(p1, entry.getStart());
+        Assertions.assertEquals(p2, entry.getEnd());
+        Assertions.assertSame(moved, entry.getStartObject());
+        Assertions.assertSame(captured, entry.getEndObject());
+        Assertions.assertTrue(entry.isFirstOccurrence());
+        Assertions.assertNull(entry.getSubLogEntry());
+        Assertions.assertSame(entry, log.peek());
+        Assertions.assertEquals("Pd2XPe3", entry.toString());
+    }
+
+    @Test
+    void testPeek_givenFollowUp_thenFollowUpRestored() {
+        PackedLog log = new PackedLog();
+        King king = new King(Colour.WHITE, new Point('e', '1'));
+        Rook rook = new Rook(Colour.WHITE, new Point('h', '1'));
+        LogEntry<Point, Piece> castle = new ChessLogEntry(new Point('h', '1'), new Point('f', '1'), rook);
+        log.push(new ChessLogEntry(new Point('e', '1'), new Point('g', '1'), king, null, castle));
+        Pawn pawn = new Pawn(Colour.BLACK, new Point('d', '5'));
+        LogEntry<Point, Piece> enPassant = new ChessLogEntry(new Point('d', '5'), null, pawn);
+        log.push(new ChessLogEntry(new Point('e', '5'), new Point('d', '6'), new Pawn(Colour.WHITE, new Point('e', '5'),
+                true), null, enPassant));
+
+        LogEntry<Point, Piece> removal = log.pop().getSubLogEntry();
+        Assertions.assertEquals(new Point('d', '5'), removal.getStart());
+        Assertions.assertNull(removal.getEnd());
+        Assertions.assertSame(pawn, removal.getStartObject());
+
+        LogEntry<Point, Piece> rookMove = log.peek().getSubLogEntry();
+        Assertions.assertEquals(new Point('h', '1'), rookMove.getStart());
+        Assertions.assertEquals(new Point('f', '1'), rookMove.getEnd());
+        Assertions.assertSame(rook, rookMove.getStartObject());
+        Assertions.assertTrue(rookMove.isFirstOccurrence());
+    }
+
+    @Test
+    void testUndo_givenTwoEntries_thenRedoneInReverseOrder() {
+        PackedLog log = new PackedLog();
+        Pawn first = new Pawn(Colour.WHITE, new Point(3, 1));
+        Pawn second = new Pawn(Colour.BLACK, new Point(3, 6));
+        log.push(new ChessLogEntry(new Point(3, 1), new Point(3, 3), first));
+        log.push(new ChessLogEntry(new Point(3, 6), new Point(3, 4), second));
+
+        Assertions.assertSame(second, log.undo().getStartObject());
+        Assertions.assertSame(first, log.undo().getStartObject());
+        Assertions.assertTrue(log.isEmpty());
+        Assertions.assertSame(first, log.redo().getStartObject());
+        Assertions.assertSame(second, log.redo().getStartObject());
+        Assertions.assertNull(log.redo());
+        Assertions.assertEquals(2, log.size());
+    }
+
+    @Test
+    void testSetPromotion_givenLatestEntry_thenKeptAfterUndoAndRedo() {
+        PackedLog log = new PackedLog();
+        Point start = new Point('a', '7');
+        Point end = new Point('a', '8');
+        Queen queen = new Queen(Colour.WHITE, end);
+        log.push(new ChessLogEntry(start, end, new Pawn(Colour.WHITE, start, true)));
+
+        log.peek().setPromotion(queen);
+        log.undo();
+        Assertions.assertSame(queen, log.redo().getPromotion());
+    }
+
+    @Test
+    void testSetPromotion_givenPromotionReplaced_thenReplacedPieceFreed() {
+        PackedLog log = new PackedLog();
+        Point start = new Point('a', '7');
+        Point end = new Point('a', '8');
+        log.push(new ChessLogEntry(start, end, new Pawn(Colour.WHITE, start, true)));
+
+        log.peek().setPromotion(new Queen(Colour.WHITE, end));
+        log.peek().setPromotion(new Rook(Colour.WHITE, end));
+        Assertions.assertEquals(3, log.getPieceTableSize());
+        // The replaced queen's id is free, and the popped entry's ids are freed too
+        for (int i = 0; i < 10; i++) {
+            log.pop();
+            log.push(new ChessLogEntry(start, end, new Pawn(Colour.WHITE, start, true)));
+            log.peek().setPromotion(new Queen(Colour.WHITE, end));
+        }
+        Assertions.assertEquals(3, log.getPieceTableSize());
+    }
+
+    @Test
+    void testPerft_givenRepeatedPromotions_thenPieceTableBounded() {
+        PackedLog log = new PackedLog();
+        ChessGame game = new ChessGame(new ChessBoard(BoardType.STANDARD, log, List.of("wKa1", "wPb7*", "bKh8")),
+                log);
+
+        long nodes = game.perft(3);
+        int tableSize = log.getPieceTableSize();
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(nodes, game.perft(3));
+            Assertions.assertTrue(log.isEmpty());
+            Assertions.assertEquals(tableSize, log.getPieceTableSize());
+        }
+    }
+
+    @Test
+    void testIterator_givenEntries_thenLatestFirst() {
+        PackedLog log = new PackedLog();
+        List<Piece> pieces = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Pawn pawn = new Pawn(Colour.WHITE, new Point(i % 8, 1));
+            pieces.add(0, pawn);
+            log.push(new ChessLogEntry(new Point(i % 8, 1), new Point(i % 8, 2), pawn));
+        }
+
+        List<Piece> iterated = new ArrayList<>();
+        for (LogEntry<Point, Piece> entry : log) {
+            iterated.add(entry.getStartObject());
+        }
+        Assertions.assertEquals(pieces, iterated);
+
+        Pawn oldest = new Pawn(Colour.BLACK, new Point(0, 6));
+        log.add(new ChessLogEntry(new Point(0, 6), new Point(0, 5), oldest));
+        Assertions.assertEquals(101, log.size());
+        Assertions.assertSame(oldest, log.toArray(new LogEntry[0])[100].getStartObject());
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.ethpalser.chess.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class PositionHistoryTest {
+
+    @Test
+    void testCountRepetitions_givenRepeatedKey_thenCountsSamePlayerPositions() {
+        PositionHistory history = new PositionHistory(1L);
+        history.push(2L, false, false);
+        history.push(3L, false, false);
+        history.push(4L, false, false);
+        history.push(1L, false, false);
+
+        assertEquals(2, history.countRepetitions());
+        history.pop();
+        assertEquals(1, history.countRepetitions());
+    }
+
+    @Test
+    void testCountRepetitions_givenIrreversiblePush_thenEarlierPositionsIgnored() {
+        PositionHistory history = new PositionHistory(1L);
+        history.push(2L, false, false);
+        history.push(1L, true, false);
+        history.push(2L, false, false);
+        history.push(1L, false, false);
+
+        assertEquals(2, history.countRepetitions());
+        history.push(2L, false, false);
+        assertEquals(2, history.countRepetitions());
+        history.push(1L, false, false);
+        assertEquals(3, history.countRepetitions());
+    }
+
+    @Test
+    void testPush_givenManyPositions_thenGrows() {
+        PositionHistory history = new PositionHistory(0L);
+        for (int i = 1; i <= 200; i++) {
+            history.push(i % 4, false, false);
+        }
+
+        assertEquals(201, history.size());
+        assertEquals(0L, history.peek());
+        assertEquals(51, history.countRepetitions());
+    }
+
+    @Test
+    void testGetHalfmoveClock_givenResetAndPop_thenRestored() {
+        PositionHistory history = new PositionHistory(0L);
+        history.push(1L, false, false);
+        history.push(2L, true, false);
+        assertEquals(2, history.getHalfmoveClock());
+
+        history.push(3L, false, true);
+        history.push(4L, false, false);
+        assertEquals(1, history.getHalfmoveClock());
+
+        history.pop();
+        history.pop();
+        assertEquals(2, history.getHalfmoveClock());
+    }
+
+    @Test
+    void testSeek_givenUndonePositions_thenReturnsUntilReplaced() {
+        PositionHistory history = new PositionHistory(1L);
+        history.push(2L, false, false);
+        history.push(3L, true, false);
+        history.push(4L, false, false);
+
+        assertTrue(history.seek(2));
+        assertEquals(2L, history.peek());
+        assertTrue(history.seek(4));
+        assertEquals(4L, history.peek());
+        assertFalse(history.seek(5));
+
+        history.pop();
+        history.pop();
+        history.push(3L, true, false);
+        assertTrue(history.canSeek(4));
+        history.push(5L, false, false);
+        assertFalse(history.canSeek(5));
+        assertEquals(4, history.size());
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.ethpalser.chess.move;
+
+import com.ethpalser.chess.log.ChessLogEntry;
+import com.ethpalser.chess.piece.Colour;
+import com.ethpalser.chess.piece.standard.Rook;
+import com.ethpalser.chess.space.Path;
+import com.ethpalser.chess.space.Point;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MoveSetTest {
+
+    @Test
+    void testGetMove_givenPointOnPath_thenReturnsMoveWithPath() {
+        Move move = new Move(new Path(new Point(0, 1), new Point(0, 5)));
+        MoveSet moveSet = new MoveSet(move);
+
+        Assertions.assertEquals(move, moveSet.getMove(new Point(0, 3)));
+        Assertions.assertNull(moveSet.getMove(new Point(1, 3)));
+    }
+
+    @Test
+    void testGetMove_givenPointPassedByOneMoveAndEndingAnother_thenReturnsEndingMove() {
+        Point rookPoint = new Point(7, 0);
+        Move passing = new Move(new Path(new Point(5, 0), new Point(6, 0)),
+                new ChessLogEntry(rookPoint, new Point(5, 0), new Rook(Colour.WHITE, rookPoint)));
+        Move ending = new Move(new Point(5, 0));
+        MoveSet moveSet = new MoveSet(passing, ending);
+
+        Assertions.assertEquals(ending, moveSet.getMove(new Point(5, 0)));
+        Assertions.assertEquals(passing, moveSet.getMove(new Point(6, 0)));
+    }
+
+    @Test
+    void testContains_givenRaysWithEqualPointHashSums_thenKeepsBothRays() {
+        // A queen on e1: the ray d1, c1 and the ray f1 have the same sum of point hashes
+        MoveSet moveSet = new MoveSet(new Path(new Point(3, 0), new Point(2, 0)), new Path(new Point(5, 0)));
+
+        Assertions.assertEquals(2, moveSet.toSet().size());
+        Assertions.assertTrue(moveSet.contains(new Point(2, 0)));
+        Assertions.assertTrue(moveSet.contains(new Point(3, 0)));
+        Assertions.assertTrue(moveSet.contains(new Point(5, 0)));
+    }
+
+    @Test
+    void testContains_givenAddedMove_thenContainsAllItsPoints() {
+        MoveSet moveSet = new MoveSet(new Point(2, 2));
+        moveSet.addMove(new Move(new Path(new Point(3, 3), new Point(5, 5))));
+
+        Assertions.assertTrue(moveSet.contains(new Point(2, 2)));
+        Assertions.assertTrue(moveSet.contains(new Point(4, 4)));
+        Assertions.assertFalse(moveSet.contains(new Point(6, 6)));
+        Assertions.assertEquals(4, moveSet.getPoints().size());
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.ethpalser.chess.move.custom;
+
+import com.ethpalser.chess.move.Movement;
+import com.ethpalser.chess.piece.Colour;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.space.Path;
+import com.ethpalser.chess.space.Plane;
+import com.ethpalser.chess.space.Point;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class CustomMoveTest {
+
+    @Test
+    void toMovementList_mirroredOnBothAxes_hasPathInEveryQuadrant() {
+        // Given
+        CustomMove move = new CustomMove(new Path(new Point(1, 1), new Point(2, 2)), CustomMoveType.ADVANCE,
+                true, true);
+        Plane<Piece> board = new Plane<>();
+
+        // When
+        List<Movement> movements = move.toMovementList(board, null, Colour.WHITE, new Point(3, 3), false, false);
+
+        // Then
+        assertEquals(4, movements.size());
+        for (Point expected : List.of(new Point(5, 5), new Point(1, 5), new Point(5, 1), new Point(1, 1))) {
+            assertTrue(movements.stream().anyMatch(m -> m.getPath().hasPoint(expected)));
+        }
+    }
+
+    @Test
+    void toMovementList_specificQuadrantForBlack_isMirroredDownAndStopsAtEdge() {
+        // Given
+        Path base = new Path(List.of(new Point(0, 1), new Point(0, 2), new Point(0, 3)));
+        CustomMove move = new CustomMove.Builder(base, CustomMoveType.ADVANCE)
+                .isMirrorXAxis(false)
+                .isMirrorYAxis(false)
+                .isSpecificQuadrant(true)
+                .build();
+        Plane<Piece> board = new Plane<>();
+
+        // When
+        List<Movement> movements = move.toMovementList(board, null, Colour.BLACK, new Point(4, 1), false, false);
+
+        // Then
+        assertEquals(1, movements.size());
+        assertTrue(movements.get(0).getPath().hasPoint(new Point(4, 0)));
+        assertEquals(1, movements.get(0).getPath().length());
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.ethpalser.chess.move.custom.condition;
+
+import com.ethpalser.chess.log.ChessLog;
+import com.ethpalser.chess.log.ChessLogEntry;
+import com.ethpalser.chess.log.Log;
+import com.ethpalser.chess.piece.Colour;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.piece.standard.Pawn;
+import com.ethpalser.chess.piece.standard.Rook;
+import com.ethpalser.chess.space.Plane;
+import com.ethpalser.chess.space.Point;
+import com.ethpalser.chess.space.VirtualPlane;
+import com.ethpalser.chess.space.custom.Location;
+import com.ethpalser.chess.space.custom.reference.LogReference;
+import com.ethpalser.chess.space.custom.reference.PathReference;
+import com.ethpalser.chess.view.ConditionalView;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class MemoisedConditionalTest {
+
+    @Test
+    void isExpected_pointsUnchanged_conditionVerifiedOnce() {
+        // Given
+        Plane<Piece> plane = new Plane<>();
+        CountingConditional counting = new CountingConditional(
+                new ReferenceCondition<>(new PathReference<>(Location.PATH, new Point(1, 0), new Point(3, 0)),
+                        Comparator.EQUAL, null));
+        Conditional<Piece> condition = new MemoisedConditional<>(counting);
+
+        // When
+        boolean first = condition.isExpected(plane);
+        plane.put(new Point(5, 5), new Rook(Colour.WHITE, new Point(5, 5)));
+        boolean second = condition.isExpected(plane);
+
+        // Then
+        assertTrue(first);
+        assertTrue(second);
+        assertEquals(1, counting.count);
+    }
+
+    @Test
+    void isExpected_pointOnPathChanged_conditionVerifiedAgain() {
+        // Given
+        Plane<Piece> plane = new Plane<>();
+        CountingConditional counting = new CountingConditional(
+                new ReferenceCondition<>(new PathReference<>(Location.PATH, new Point(1, 0), new Point(3, 0)),
+                        Comparator.EQUAL, null));
+        Conditional<Piece> condition = new MemoisedConditional<>(counting);
+
+        // When
+        assertTrue(condition.isExpected(plane));
+        plane.put(new Point(2, 0), new Rook(Colour.WHITE, new Point(2, 0)));
+        boolean result = condition.isExpected(plane);
+
+        // Then
+        assertFalse(result);
+        assertEquals(2, counting.count);
+    }
+
+    @Test
+    void isExpected_virtualPlaneReplacementChanged_conditionVerifiedAgain() {
+        // Given
+        Plane<Piece> base = new Plane<>();
+        Map<Point, Piece> replaced = new HashMap<>();
+        Plane<Piece> plane = new VirtualPlane<>(base, replaced);
+        Conditional<Piece> condition = new MemoisedConditional<>(
+                new ReferenceCondition<>(new PathReference<>(Location.PATH, new Point(1, 0), new Point(3, 0)),
+                        Comparator.EQUAL, null));
+
+        // When
+        boolean first = condition.isExpected(plane);
+        replaced.put(new Point(2, 0), new Rook(Colour.WHITE, new Point(2, 0)));
+        boolean second = condition.isExpected(plane);
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+    }
+
+    @Test
+    void isExpected_lastLogEntryChanged_conditionVerifiedAgain() {
+        // Given
+        Plane<Piece> plane = new Plane<>();
+        Log<Point, Piece> log = new ChessLog();
+        CountingConditional counting = new CountingConditional(
+                new PropertyCondition<>(new LogReference<>(log), Comparator.EQUAL, PropertyType.TYPE, "P"));
+        Conditional<Piece> condition = new MemoisedConditional<>(counting);
+        Piece rook = new Rook(Colour.WHITE, new Point(0, 0));
+        Piece pawn = new Pawn(Colour.WHITE, new Point(1, 1));
+
+        // When
+        log.push(new ChessLogEntry(new Point(0, 1), new Point(0, 0), rook));
+        condition.isExpected(plane);
+        condition.isExpected(plane);
+        log.push(new ChessLogEntry(new Point(1, 0), new Point(1, 1), pawn));
+        condition.isExpected(plane);
+
+        // Then
+        assertEquals(2, counting.count);
+    }
+
+    private static class CountingConditional implements Conditional<Piece> {
+
+        private final Conditional<Piece> condition;
+        private int count;
+
+        private CountingConditional(Conditional<Piece> condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public boolean isExpected(Plane<Piece> plane) {
+            this.count++;
+            return this.condition.isExpected(plane);
+        }
+
+        @Override
+        public List<Point> getPointDependencies(Plane<Piece> plane) {
+            return this.condition.getPointDependencies(plane);
+        }
+
+        @Override
+        public List<Log<?, ?>> getLogDependencies() {
+            return this.condition.getLogDependencies();
+        }
+
+        @Override
+        public ConditionalView toView() {
+            return this.condition.toView();
+        }
+    }
+
+}
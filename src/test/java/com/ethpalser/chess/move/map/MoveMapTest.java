@@ -0,0 +1,38 @@
+package com.ethpalser.chess.move.map;
+
+import com.ethpalser.chess.board.Board;
+import com.ethpalser.chess.board.BoardType;
+import com.ethpalser.chess.board.ChessBoard;
+import com.ethpalser.chess.log.ChessLog;
+import com.ethpalser.chess.log.Log;
+import com.ethpalser.chess.piece.Colour;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.space.Point;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class MoveMapTest {
+
+    @Test
+    void getPieces_boardChangedAfterCreation_sameMovesAsNewMap() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log);
+        ThreatMap blackThreats = new ThreatMap(Colour.BLACK, board.getPieces(), log);
+        MoveMap whiteMoves = new MoveMap(Colour.WHITE, board, log, blackThreats);
+        whiteMoves.getPoints();
+
+        log.push(board.movePiece(new Point('e', '2'), new Point('e', '4'), log, null));
+        log.push(board.movePiece(new Point('d', '7'), new Point('d', '5'), log, null));
+        log.push(board.movePiece(new Point('e', '4'), new Point('d', '5'), log, null));
+
+        MoveMap expected = new MoveMap(Colour.WHITE, board.getPieces(), log, blackThreats);
+        assertEquals(expected.getPoints(), whiteMoves.getPoints());
+        for (Point point : expected.getPoints()) {
+            assertEquals(expected.getPieces(point), whiteMoves.getPieces(point), "moves to " + point);
+        }
+        assertTrue(whiteMoves.getPieces(new Point('e', '3')).isEmpty());
+        assertTrue(whiteMoves.getPieces(new Point('c', '4')).contains(board.getPiece(new Point('f', '1'))));
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.ethpalser.chess.move.map;
+
+import com.ethpalser.chess.board.Board;
+import com.ethpalser.chess.board.BoardType;
+import com.ethpalser.chess.board.ChessBoard;
+import com.ethpalser.chess.log.ChessLog;
+import com.ethpalser.chess.log.Log;
+import com.ethpalser.chess.piece.Colour;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.piece.standard.Knight;
+import com.ethpalser.chess.piece.standard.Pawn;
+import com.ethpalser.chess.space.Plane;
+import com.ethpalser.chess.space.Point;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ThreatMapTest {
+
+    @Test
+    void getPieces_pointDefendedByTwoPieces_returnsBothPieces() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe1*", "wRa1*", "wNc2", "bKe8*"));
+        ThreatMap threats = new ThreatMap(Colour.WHITE, board.getPieces(), log);
+
+        Set<Piece> pieces = threats.getPieces(new Point('a', '3'));
+
+        assertEquals(2, pieces.size());
+        assertTrue(pieces.contains(board.getPiece(new Point('a', '1'))));
+        assertTrue(pieces.contains(board.getPiece(new Point('c', '2'))));
+        assertFalse(threats.hasNoThreats(0, 2));
+        assertTrue(threats.hasNoThreats(7, 7));
+    }
+
+    @Test
+    void getPieces_queenRaysWithEqualPointHashSums_returnsQueenOnBothRays() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKh2", "wQe1", "bKe8*"));
+        ThreatMap threats = new ThreatMap(Colour.WHITE, board.getPieces(), log);
+        Piece queen = board.getPiece(new Point('e', '1'));
+
+        assertTrue(threats.getPieces(new Point('c', '1')).contains(queen));
+        assertTrue(threats.getPieces(new Point('f', '1')).contains(queen));
+        assertTrue(threats.getPieces(new Point('h', '1')).contains(queen));
+    }
+
+    @Test
+    void getPieces_attackerReplacedAfterward_setStillHasOriginalAttacker() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe1*", "wRa1*", "bKe8*"));
+        ThreatMap threats = new ThreatMap(Colour.WHITE, board.getPieces(), log);
+        Piece rook = board.getPiece(new Point('a', '1'));
+        Set<Piece> pieces = threats.getPieces(new Point('a', '3'));
+
+        // The knight takes the id the rook leaves, and also threatens a3
+        threats.removeThreats(rook);
+        board.addPiece(new Point('a', '1'), null);
+        Piece knight = new Knight(Colour.WHITE, new Point('b', '1'));
+        board.addPiece(new Point('b', '1'), knight);
+        threats.refreshThreats(board.getPieces(), log, new Point('b', '1'));
+
+        assertTrue(threats.getPieces(new Point('a', '3')).contains(knight));
+        assertEquals(Set.of(rook), pieces);
+    }
+
+    @Test
+    void removeThreats_capturedPiece_pointsNoLongerThreatened() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe1*", "wRa1*", "bKe8*"));
+        ThreatMap threats = new ThreatMap(Colour.WHITE, board.getPieces(), log);
+        Piece rook = board.getPiece(new Point('a', '1'));
+
+        threats.removeThreats(rook);
+
+        assertTrue(threats.hasNoThreats(new Point('a', '5')));
+        assertTrue(threats.getPieces(new Point('b', '1')).isEmpty());
+        assertFalse(threats.getPieces(new Point('d', '1')).contains(rook));
+    }
+
+    @Test
+    void refreshThreats_pieceMoved_onlyNewPointsThreatenedByPiece() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe1*", "wRa1*", "bKe8*"));
+        ThreatMap threats = new ThreatMap(Colour.WHITE, board.getPieces(), log);
+        Piece rook = board.getPiece(new Point('a', '1'));
+
+        log.push(board.movePiece(new Point('a', '1'), new Point('a', '4'), log, null));
+        threats.refreshThreats(board.getPieces(), log, new Point('a', '1'));
+        threats.refreshThreats(board.getPieces(), log, new Point('a', '4'));
+
+        assertTrue(threats.hasNoThreats(new Point('b', '1')));
+        assertTrue(threats.getPieces(new Point('h', '4')).contains(rook));
+        assertTrue(threats.getPieces(new Point('a', '8')).contains(rook));
+        assertFalse(threats.getPieces(new Point('c', '1')).contains(rook));
+    }
+
+    @Test
+    void refreshThreats_pieceBlockingPath_boardIsNotModified() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log, List.of("wKe1*", "wRa1*", "wNa4", "bKe8*"));
+        ThreatMap threats = new ThreatMap(Colour.WHITE, board.getPieces(), log);
+        long version = board.getPieces().getVersion();
+
+        threats.refreshThreats(board.getPieces(), log, new Point('a', '4'));
+
+        assertEquals(version, board.getPieces().getVersion());
+        assertTrue(threats.hasNoThreats(new Point('a', '5')));
+        assertTrue(threats.getPieces(new Point('a', '4')).contains(board.getPiece(new Point('a', '1'))));
+    }
+
+    @Test
+    void refreshThreats_fewAndManyChangedPoints_sameThreatsAsNewMap() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log);
+        ThreatMap threats = new ThreatMap(Colour.WHITE, board.getPieces(), log);
+        String[][] actions = {{"e2", "e4"}, {"e7", "e5"}, {"g1", "f3"}, {"b8", "c6"}, {"f1", "c4"}, {"g8", "f6"},
+                {"d2", "d4"}, {"e5", "d4"}};
+
+        for (int i = 0; i < actions.length; i++) {
+            Point start = new Point(actions[i][0]);
+            Point end = new Point(actions[i][1]);
+            log.push(board.movePiece(start, end, log, null));
+            threats.refreshThreats(board.getPieces(), log, start);
+            threats.refreshThreats(board.getPieces(), log, end);
+            if (i == 0) {
+                // Few changed points are applied incrementally, the rest at once by finding all threats again
+                assertSameThreats(new ThreatMap(Colour.WHITE, board.getPieces(), log), threats);
+            }
+        }
+
+        assertSameThreats(new ThreatMap(Colour.WHITE, board.getPieces(), log), threats);
+    }
+
+    @Test
+    void getThreatCount_afterMovesApplied_sameCountsAsNewMap() {
+        Log<Point, Piece> log = new ChessLog();
+        Board board = new ChessBoard(BoardType.STANDARD, log);
+        ThreatMap threats = new ThreatMap(Colour.WHITE, board.getPieces(), log);
+        Piece bishop = board.getPiece(new Point('f', '1'));
+        // Threats include defends, so the bishop threatens the points of the pawns in front of it
+        assertEquals(2, threats.getThreatCount(bishop));
+
+        log.push(board.movePiece(new Point('e', '2'), new Point('e', '4'), log, null));
+        threats.refreshThreats(board.getPieces(), log, new Point('e', '2'));
+        threats.refreshThreats(board.getPieces(), log, new Point('e', '4'));
+
+        ThreatMap expected = new ThreatMap(Colour.WHITE, board.getPieces(), log);
+        assertEquals(expected.getThreatCount(), threats.getThreatCount());
+        // The bishop's diagonal opened up to a6, and the e2 point is defended by the king, queen, bishop and knight
+        assertEquals(6, threats.getThreatCount(bishop));
+        assertEquals(4, threats.getThreatCount(4, 1));
+        int sum = 0;
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                sum += threats.getThreatCount(x, y);
+            }
+        }
+        assertEquals(sum, threats.getThreatCount());
+    }
+
+    @Test
+    void getPieces_moreThan64PiecesOfColour_tracksEveryPiece() {
+        Log<Point, Piece> log = new ChessLog();
+        Plane<Piece> board = new Plane<>(25, 25);
+        for (int y = 1; y <= 3; y++) {
+            for (int x = 0; x < 26; x++) {
+                board.put(new Point(x, y), new Pawn(Colour.WHITE, new Point(x, y), true));
+            }
+        }
+        ThreatMap threats = new ThreatMap(Colour.WHITE, board, log);
+        for (Piece pawn : board) {
+            int x = pawn.getPoint().getX();
+            int y = pawn.getPoint().getY();
+            assertEquals(x == 0 || x == 25 ? 1 : 2, threats.getThreatCount(pawn));
+            if (x > 0) {
+                assertTrue(threats.getPieces(new Point(x - 1, y + 1)).contains(pawn));
+            }
+        }
+        Piece left = board.get(new Point(24, 3));
+        Piece right = board.get(new Point(25, 3));
+
+        Set<Piece> pieces = threats.getPieces(new Point(24, 4));
+        assertEquals(Set.of(board.get(new Point(23, 3)), right), pieces);
+        assertEquals(1, threats.getThreatCount(right));
+        assertEquals(26 * 3 * 2 - 3 * 2, threats.getThreatCount());
+
+        threats.removeThreats(right);
+        assertEquals(Set.of(board.get(new Point(23, 3))), threats.getPieces(new Point(24, 4)));
+        assertEquals(Set.of(left), threats.getPieces(new Point(25, 4)));
+        assertEquals(2, pieces.size());
+    }
+
+    private static void assertSameThreats(ThreatMap expected, ThreatMap actual) {
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                Point point = new Point(x, y);
+                assertEquals(expected.getPieces(point), actual.getPieces(point), "threats at " + point);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.ethpalser.chess.piece.custom;
+
+import com.ethpalser.chess.log.ChessLog;
+import com.ethpalser.chess.move.custom.CustomMoveType;
+import com.ethpalser.chess.piece.Colour;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.space.Path;
+import com.ethpalser.chess.space.Plane;
+import com.ethpalser.chess.space.Point;
+import com.ethpalser.chess.view.MoveView;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class CustomPieceFactoryTest {
+
+    @Test
+    void testBuild_givenStepInEachDirection_thenValueFromAverageMobility() {
+        Plane<Piece> plane = new Plane<>();
+        CustomPieceFactory factory = new CustomPieceFactory(plane, new ChessLog());
+        List<MoveView> specs = List.of(
+                new MoveView(new Path(new Point(0, 1)), CustomMoveType.ADVANCE, true, false, false, true, true,
+                        null, null),
+                new MoveView(new Path(new Point(1, 0)), CustomMoveType.ADVANCE, false, true, false, true, true,
+                        null, null));
+
+        CustomPiece piece = factory.build("W", Colour.WHITE, new Point(0, 0), false, specs);
+
+        // 2 moves in each corner, 3 on the other edge points and 4 elsewhere, which is 3.5 on average
+        assertTrue(factory.getValues().contains("W"));
+        assertEquals(200, factory.getValues().getValue("W"));
+        assertEquals(200, piece.getValue());
+    }
+
+    @Test
+    void testBuild_givenPiecesOnCrowdedBoard_thenValueSameAsOnEmptyBoard() {
+        Plane<Piece> plane = new Plane<>();
+        CustomPieceFactory factory = new CustomPieceFactory(plane, new ChessLog());
+        List<MoveView> specs = List.of(
+                new MoveView(new Path(new Point(0, 1), new Point(0, 7)), CustomMoveType.ADVANCE, true, false, false,
+                        true, true, null, null),
+                new MoveView(new Path(new Point(1, 0), new Point(7, 0)), CustomMoveType.ADVANCE, false, true, false,
+                        true, true, null, null));
+        for (int x = 0; x < 8; x++) {
+            plane.put(new Point(x, 1), factory.build("Z", Colour.WHITE, new Point(x, 1), false, specs));
+        }
+
+        Piece piece = factory.build("Z", Colour.BLACK, new Point(3, 3), true, specs);
+
+        // A rook-like piece has 14 moves on every point of an empty board
+        assertEquals("Z", piece.getCode());
+        assertEquals(600, factory.getValues().getValue("Z"));
+        assertEquals(600, ((CustomPiece) piece).getValue());
+    }
+
+    @Test
+    void testBuild_givenSameCodeOnDifferentBoardSizes_thenEachFactoryHasItsOwnValue() {
+        List<MoveView> specs = List.of(
+                new MoveView(new Path(new Point(0, 1), new Point(0, 25)), CustomMoveType.ADVANCE, true, false, false,
+                        true, true, null, null));
+        CustomPieceFactory small = new CustomPieceFactory(new Plane<>(3, 3), new ChessLog());
+        CustomPieceFactory large = new CustomPieceFactory(new Plane<>(25, 25), new ChessLog());
+
+        CustomPiece onSmall = small.build("Y", Colour.WHITE, new Point(0, 0), true, specs);
+        CustomPiece onLarge = large.build("Y", Colour.WHITE, new Point(0, 0), true, specs);
+
+        // Moving along a file has 3 moves on every point of a 4x4 board, and 25 on a 26x26 board
+        assertEquals(100, onSmall.getValue());
+        assertEquals(1200, onLarge.getValue());
+        assertFalse(new CustomPieceFactory(new Plane<>(), new ChessLog()).getValues().contains("Y"));
+    }
+
+}
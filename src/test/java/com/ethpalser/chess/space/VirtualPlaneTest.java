@@ -0,0 +1,37 @@
+package com.ethpalser.chess.space;
+
+import com.ethpalser.chess.piece.Colour;
+import com.ethpalser.chess.piece.Piece;
+import com.ethpalser.chess.piece.standard.Knight;
+import com.ethpalser.chess.piece.standard.Rook;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class VirtualPlaneTest {
+
+    @Test
+    void testGet_givenReplacedPointEmptied_thenNullAndBaseUnchanged() {
+        Plane<Piece> plane = new Plane<>(7, 7);
+        Point point = new Point(0, 0);
+        plane.put(point, new Rook(Colour.WHITE, point));
+        Plane<Piece> virtual = new VirtualPlane<>(plane, point, null);
+
+        assertNull(virtual.get(point));
+        assertEquals(0, virtual.size());
+        assertEquals(1, plane.size());
+    }
+
+    @Test
+    void testGet_givenReplacedPointOccupied_thenReturnsReplacement() {
+        Plane<Piece> plane = new Plane<>(7, 7);
+        Point point = new Point(2, 2);
+        Piece knight = new Knight(Colour.BLACK, point);
+        Plane<Piece> virtual = new VirtualPlane<>(plane, point, knight);
+
+        assertEquals(knight, virtual.get(point));
+        assertNull(plane.get(point));
+        assertThrows(UnsupportedOperationException.class, () -> virtual.remove(point));
+    }
+}